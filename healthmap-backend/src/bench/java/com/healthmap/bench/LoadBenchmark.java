@@ -0,0 +1,309 @@
+package com.healthmap.bench;
+
+import com.healthmap.HealthMapApplication;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput and latency of {@code GET /api/assessments}, {@code GET /api/stats}
+ * and {@code POST /api/health-signals} with request handling on Tomcat's
+ * platform-thread pool and on virtual threads ({@code virtual} profile), at
+ * increasing numbers of concurrent clients.
+ * <p>
+ * The application runs on the dev profile (in-memory H2, seeded from
+ * data.sql), in a fresh JVM per mode, with the load generated in the same
+ * JVM. Every JDBC statement execution and commit
+ * first sleeps {@code --db-latency-ms} (default 2), standing in for the
+ * round trip to a database server, so request threads block the way they do
+ * in production. Each client is a virtual thread sending one request at a
+ * time; each point is a {@code --warmup-seconds} warm-up followed by
+ * {@code --seconds} of measurement, after a longer warm-up of every
+ * endpoint when the application starts.
+ * <pre>
+ * mvn -Pbench compile exec:exec@load
+ * mvn -Pbench compile exec:exec@load -Dload.args="--clients=50,400 --seconds=5 --db-latency-ms=10"
+ * </pre>
+ */
+public class LoadBenchmark {
+
+    private static final String RESULT_PREFIX = "RESULT\t";
+
+    private static final String SIGNAL_JSON = """
+            {"areaId":"BENCH_%d","areaName":"Bench area %d","signalType":"RESPIRATORY","signalLevel":"NORMAL",\
+            "source":"FIELD_TEAM","latitude":31.5,"longitude":34.45,"reportedBy":"bench"}""";
+
+    private enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    private record Endpoint(String name, String method, String path) {
+    }
+
+    private record Result(double requestsPerSecond, double p50Ms, double p99Ms, long errors) {
+    }
+
+    private static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint("GET /api/assessments", "GET", "/api/assessments?limit=20"),
+            new Endpoint("GET /api/stats", "GET", "/api/stats"),
+            new Endpoint("POST /api/health-signals", "POST", "/api/health-signals"));
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        int[] clients = Arrays.stream(options.getOrDefault("clients", "10,50,200,800").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "3"));
+        long dbLatencyMillis = Long.parseLong(options.getOrDefault("db-latency-ms", "2"));
+
+        if (options.containsKey("mode")) {
+            measure(Mode.valueOf(options.get("mode")), clients, seconds, warmupSeconds, dbLatencyMillis);
+            return;
+        }
+
+        // Each mode in a fresh JVM: in a shared one, whichever runs second gains from the first's JIT and heap
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Mode mode : Mode.values()) {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), LoadBenchmark.class.getName()));
+            command.addAll(Arrays.asList(args));
+            command.add("--mode=" + mode.name());
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            System.out.printf(Locale.ROOT, "%n== %s ==%n", mode);
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        String[] f = line.substring(RESULT_PREFIX.length()).split("\t");
+                        results.put(mode + " " + f[0] + " " + f[1], new Result(Double.parseDouble(f[2]),
+                                Double.parseDouble(f[3]), Double.parseDouble(f[4]), Long.parseLong(f[5])));
+                    } else {
+                        System.out.println(line);
+                    }
+                }
+            }
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException(mode + " run failed with exit code " + process.exitValue());
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%n%d ms simulated database latency; %d s per point%n%n", dbLatencyMillis, seconds);
+        System.out.printf(Locale.ROOT, "| %-24s | %7s | %-37s | %-37s |%n", "Endpoint", "Clients",
+                "Platform: req/s, p50 / p99 ms, errors", "Virtual: req/s, p50 / p99 ms, errors");
+        System.out.printf(Locale.ROOT, "|%s|%s|%s|%s|%n", "-".repeat(26), "-".repeat(9), "-".repeat(39), "-".repeat(39));
+        for (Endpoint endpoint : ENDPOINTS) {
+            for (int n : clients) {
+                System.out.printf(Locale.ROOT, "| %-24s | %7d | %-37s | %-37s |%n", endpoint.name(), n,
+                        format(results.get(Mode.PLATFORM + " " + endpoint.name() + " " + n)),
+                        format(results.get(Mode.VIRTUAL + " " + endpoint.name() + " " + n)));
+            }
+        }
+    }
+
+    /**
+     * Runs the application in one mode and prints a result line per point.
+     */
+    private static void measure(Mode mode, int[] clients, int seconds, int warmupSeconds, long dbLatencyMillis)
+            throws Exception {
+        // A restart classloader would swap the application out from under the load
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = start(mode, dbLatencyMillis)) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            for (Endpoint endpoint : ENDPOINTS) {
+                run(base, endpoint, clients[clients.length - 1], warmupSeconds * 3);
+            }
+            for (Endpoint endpoint : ENDPOINTS) {
+                for (int n : clients) {
+                    run(base, endpoint, n, warmupSeconds);
+                    Result result = run(base, endpoint, n, seconds);
+                    System.out.printf(Locale.ROOT, "%-26s %5d clients: %s%n", endpoint.name(), n, format(result));
+                    System.out.printf(Locale.ROOT, "%s%s\t%d\t%.1f\t%.3f\t%.3f\t%d%n", RESULT_PREFIX, endpoint.name(), n,
+                            result.requestsPerSecond(), result.p50Ms(), result.p99Ms(), result.errors());
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Mode mode, long dbLatencyMillis) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(HealthMapApplication.class)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource ? withLatency(dataSource, dbLatencyMillis) : bean;
+                    }
+                }));
+        if (mode == Mode.VIRTUAL) {
+            builder.profiles("virtual");
+        }
+        return builder.run("--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=ERROR",
+                // Requests shed when no connection is free are counted as errors instead
+                "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF",
+                "--app.import.enabled=false",
+                "--file.upload-dir=./target/bench/uploads",
+                "--app.risk.rules-file=./target/bench/risk-rules.json");
+    }
+
+    /**
+     * Closed loop: each client sends its next request as soon as the last
+     * one is answered, until the time is up.
+     */
+    private static Result run(String base, Endpoint endpoint, int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<long[]>> futures = new ArrayList<>();
+        long[] errors = new long[clients];
+        try (HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(workers.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    for (int i = 0; System.nanoTime() < deadline; i++) {
+                        HttpRequest request = request(base, endpoint, client * 1_000_000 + i);
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors[client]++;
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors[client]++;
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - started;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] all = futures.stream().map(LoadBenchmark::join).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result((double) all.length / seconds, percentile(all, 0.50), percentile(all, 0.99),
+                Arrays.stream(errors).sum());
+    }
+
+    private static HttpRequest request(String base, Endpoint endpoint, int n) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + endpoint.path()))
+                .timeout(Duration.ofSeconds(60));
+        if (endpoint.method().equals("POST")) {
+            int area = n % 200;
+            builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT, SIGNAL_JSON, area, area)));
+        }
+        return builder.build();
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? Double.NaN : sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] / 1e6;
+    }
+
+    private static String format(Result result) {
+        return result == null ? "-" : String.format(Locale.ROOT, "%.0f, %.1f / %.1f, %d",
+                result.requestsPerSecond(), result.p50Ms(), result.p99Ms(), result.errors());
+    }
+
+    /**
+     * A data source whose connections sleep before each statement execution,
+     * commit and rollback.
+     */
+    private static DataSource withLatency(DataSource target, long millis) {
+        return proxy(DataSource.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? delayed(connection, millis) : result;
+        });
+    }
+
+    private static Connection delayed(Connection target, long millis) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("commit") || name.equals("rollback")) {
+                Thread.sleep(millis);
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return delayed(CallableStatement.class, statement, millis);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return delayed(PreparedStatement.class, statement, millis);
+            }
+            if (result instanceof Statement statement) {
+                return delayed(Statement.class, statement, millis);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S delayed(Class<S> type, S target, long millis) {
+        return proxy(type, target, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                Thread.sleep(millis);
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(LoadBenchmark.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.healthmap.bench;
+
+import com.healthmap.model.Assessment;
+import com.healthmap.model.HealthSignal;
+import com.healthmap.repository.AssessmentRepository;
+import com.healthmap.repository.HealthSignalRepository;
+import com.healthmap.service.ChangeSequence;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Latency of every {@link AssessmentRepository} and {@link HealthSignalRepository}
+ * query against file-backed H2 databases seeded with {@code bench.rows} rows per
+ * table (default 1M). The same queries run twice: on the latest schema with its
+ * secondary indexes dropped and on the latest schema as migrated, and the
+ * medians are printed side by side.
+ * <p>
+ * Only compiled with the {@code bench} Maven profile:
+ * <pre>
+ * MAVEN_OPTS=-Xmx3g mvn -Pbench compile exec:java
+ * </pre>
+ * Seeded databases are kept under {@code target/bench} and reused by later runs.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan("com.healthmap.model")
+@EnableJpaRepositories("com.healthmap.repository")
+// The entity listener stamping change sequence numbers needs it
+@Import(ChangeSequence.class)
+public class RepositoryBenchmark {
+
+    private static final int SEED_CHUNK = 100_000;
+    private static final int WARMUP_RUNS = 2;
+    private static final int MAX_SAMPLES = 15;
+    private static final int MIN_SAMPLES = 3;
+    private static final long SAMPLE_BUDGET_NANOS = 5_000_000_000L;
+
+    private record Timing(int rows, double medianMs, double p95Ms, int samples) {
+    }
+
+    public static void main(String[] args) {
+        int rows = Integer.getInteger("bench.rows", 1_000_000);
+        // exec:java runs main on a non-main thread; keep devtools out of the way regardless
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        Map<String, Timing> baseline = run("baseline", true, rows);
+        Map<String, Timing> indexed = run("indexed", false, rows);
+
+        System.out.printf(Locale.ROOT, "%n%,d rows per table; median (p95) ms%n%n", rows);
+        System.out.printf(Locale.ROOT, "| %-58s | %9s | %21s | %21s |%n", "Method", "Rows", "No indexes", "Indexes");
+        System.out.printf(Locale.ROOT, "|%s|%s|%s|%s|%n", "-".repeat(60), "-".repeat(11), "-".repeat(23), "-".repeat(23));
+        for (Map.Entry<String, Timing> entry : indexed.entrySet()) {
+            Timing before = baseline.get(entry.getKey());
+            Timing after = entry.getValue();
+            System.out.printf(Locale.ROOT, "| %-58s | %9d | %21s | %21s |%n",
+                    entry.getKey(), after.rows(), format(before), format(after));
+        }
+    }
+
+    private static Map<String, Timing> run(String name, boolean dropIndexes, int rows) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RepositoryBenchmark.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                // Arguments rather than default properties, so they win over application-prod.properties.
+                // H2 would otherwise hand back cached results for repeated identical queries.
+                .run("--spring.datasource.url=jdbc:h2:file:./target/bench/" + name
+                                + ";DB_CLOSE_ON_EXIT=FALSE;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN")) {
+            Runner runner = new Runner(context);
+            runner.seed(rows);
+            if (dropIndexes) {
+                runner.dropSecondaryIndexes();
+            }
+            System.out.printf(Locale.ROOT, "%n== %s ==%n", name);
+            return runner.measure(rows);
+        }
+    }
+
+    private static String format(Timing timing) {
+        return timing == null ? "-" : String.format(Locale.ROOT, "%.2f (%.2f)", timing.medianMs(), timing.p95Ms());
+    }
+
+    private static final class Runner {
+
+        private final AssessmentRepository assessments;
+        private final HealthSignalRepository signals;
+        private final JdbcTemplate jdbc;
+        private final EntityManager entityManager;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+        private final Map<String, Timing> results = new LinkedHashMap<>();
+
+        Runner(ConfigurableApplicationContext context) {
+            this.assessments = context.getBean(AssessmentRepository.class);
+            this.signals = context.getBean(HealthSignalRepository.class);
+            this.jdbc = context.getBean(JdbcTemplate.class);
+            this.entityManager = context.getBean(EntityManager.class);
+            PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+            this.readWrite = new TransactionTemplate(transactionManager);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+        }
+
+        /**
+         * Fills both tables with deterministic pseudo-random rows in chunks:
+         * overall risk is skewed low (about 5% CRITICAL), creation times rise
+         * with id over a year, and signals spread over 1600 grid areas and
+         * 365 days with 20% ELEVATED.
+         */
+        void seed(int rows) {
+            Long present = jdbc.queryForObject("SELECT COUNT(*) FROM assessments", Long.class);
+            if (present != null && present >= rows) {
+                return;
+            }
+            jdbc.update("DELETE FROM assessments");
+            jdbc.update("DELETE FROM health_signals");
+            long started = System.nanoTime();
+            for (int from = 1; from <= rows; from += SEED_CHUNK) {
+                int to = Math.min(rows, from + SEED_CHUNK - 1);
+                jdbc.update("""
+                        INSERT INTO assessments (id, latitude, longitude, site_type, building_age,
+                            dust_present, old_materials, near_population, sewage_visible, standing_water,
+                            material_type, asbestos_risk, water_risk, overall_risk, priority,
+                            notes, created_by, created_at, updated_at)
+                        SELECT X, 31.25 + MOD(X * 31, 40000) / 100000.0, 34.20 + MOD(X * 17 + X / 40000 * 7919, 40000) / 100000.0,
+                            CASE MOD(X, 3) WHEN 0 THEN 'DEBRIS' WHEN 1 THEN 'WATER' ELSE 'BOTH' END,
+                            CASE MOD(X, 3) WHEN 0 THEN 'OLD' WHEN 1 THEN 'MODERN' ELSE 'UNKNOWN' END,
+                            MOD(X, 2) = 0, MOD(X, 5) = 0, MOD(X, 3) = 0, MOD(X, 7) = 0, MOD(X, 4) = 0,
+                            'Concrete', MOD(X * 13, 101), MOD(X * 29, 101), R,
+                            CASE WHEN R >= 70 THEN 'CRITICAL' WHEN R >= 50 THEN 'HIGH'
+                                 WHEN R >= 30 THEN 'MEDIUM' ELSE 'LOW' END,
+                            NULL, 'bench', T, T
+                        FROM (SELECT X, MOD(X * 7919, 101) * MOD(X * 104729, 101) / 100 AS R,
+                                     DATEADD('SECOND', X * (31536000 / ?), TIMESTAMP '2025-10-01 00:00:00') AS T
+                              FROM SYSTEM_RANGE(?, ?))
+                        """, rows, from, to);
+                jdbc.update("""
+                        INSERT INTO health_signals (id, area_id, area_name, signal_date, signal_type,
+                            signal_level, source, notes, latitude, longitude, reported_by, created_at, updated_at)
+                        SELECT X, 'AREA_' || LAT || '_' || LON, 'Area ' || LAT || '/' || LON, D,
+                            CASE MOD(X, 3) WHEN 0 THEN 'RESPIRATORY' WHEN 1 THEN 'GASTROINTESTINAL' ELSE 'SKIN' END,
+                            CASE WHEN MOD(X / 3, 5) = 0 THEN 'ELEVATED' ELSE 'NORMAL' END,
+                            CASE MOD(X, 4) WHEN 0 THEN 'CLINIC' WHEN 1 THEN 'FIELD_TEAM'
+                                 WHEN 2 THEN 'MOBILE_UNIT' ELSE 'ORGANIZATION' END,
+                            NULL, LAT / 100.0 + 0.005, LON / 100.0 + 0.005, 'bench',
+                            CAST(D AS TIMESTAMP) + MOD(X, 86400) * INTERVAL '1' SECOND,
+                            CAST(D AS TIMESTAMP) + MOD(X, 86400) * INTERVAL '1' SECOND
+                        FROM (SELECT X, 3125 + MOD(X * 7, 40) AS LAT, 3420 + MOD(X / 40 * 11, 40) AS LON,
+                                     DATEADD('DAY', -MOD(X * 13, 365), DATE '2026-09-30') AS D
+                              FROM SYSTEM_RANGE(?, ?))
+                        """, from, to);
+            }
+            jdbc.execute("ALTER SEQUENCE assessments_seq RESTART WITH " + (rows + 1));
+            jdbc.execute("ALTER SEQUENCE health_signals_seq RESTART WITH " + (rows + 1));
+            jdbc.execute("ANALYZE");
+            System.out.printf(Locale.ROOT, "Seeded %,d rows per table in %.1f s%n", rows,
+                    (System.nanoTime() - started) / 1e9);
+        }
+
+        /**
+         * Drops every index that does not back a primary key, leaving each
+         * query to scan.
+         */
+        void dropSecondaryIndexes() {
+            List<String> indexes = jdbc.queryForList("""
+                    SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES
+                    WHERE TABLE_SCHEMA = 'PUBLIC' AND INDEX_TYPE_NAME = 'INDEX'
+                    AND TABLE_NAME <> 'flyway_schema_history'
+                    """, String.class);
+            for (String index : indexes) {
+                jdbc.execute("DROP INDEX \"" + index + "\"");
+            }
+        }
+
+        Map<String, Timing> measure(int rows) {
+            long midId = rows / 2 + 1;
+            LocalDateTime midCreatedAt = readOnly.execute(s -> assessments.findById(midId).orElseThrow().getCreatedAt());
+            int midRisk = readOnly.execute(s -> assessments.findById(midId).orElseThrow().getOverallRisk());
+            LocalDate latest = jdbc.queryForObject("SELECT MAX(signal_date) FROM health_signals", LocalDate.class);
+            LocalDate monthAgo = latest.minusDays(30);
+            LocalDate midDate = latest.minusDays(15);
+            long midSignalId = jdbc.queryForObject(
+                    "SELECT MAX(id) FROM health_signals WHERE signal_date = ?", Long.class, midDate);
+            String area = jdbc.queryForObject(
+                    "SELECT area_id FROM health_signals WHERE id = ?", String.class, midSignalId);
+            Limit page = Limit.of(50);
+
+            time("Assessment.findById", () -> assessments.findById(midId).isPresent() ? 1 : 0);
+            time("Assessment.count", () -> (int) assessments.count());
+            time("Assessment.findByPriority(CRITICAL)", () -> assessments.findByPriority(Assessment.Priority.CRITICAL).size());
+            time("Assessment.findByPriorityIn(CRITICAL, HIGH)", () -> assessments.findByPriorityIn(
+                    List.of(Assessment.Priority.CRITICAL, Assessment.Priority.HIGH)).size());
+            time("Assessment.countByPriority(CRITICAL)", () -> (int) assessments.countByPriority(Assessment.Priority.CRITICAL));
+            time("Assessment.findHighRiskSites(90)", () -> assessments.findHighRiskSites(90).size());
+            time("Assessment.findAllByOrderByOverallRiskDesc", () -> assessments.findAllByOrderByOverallRiskDesc().size());
+            time("Assessment.findTop10ByOrderByCreatedAtDesc", () -> assessments.findTop10ByOrderByCreatedAtDesc().size());
+            time("Assessment.findPageByCreatedAt(50)", () -> assessments.findPageByCreatedAt(page).size());
+            time("Assessment.findPageByCreatedAtAfter(mid, 50)",
+                    () -> assessments.findPageByCreatedAtAfter(midCreatedAt, midId, page).size());
+            time("Assessment.findPageByOverallRisk(50)", () -> assessments.findPageByOverallRisk(page).size());
+            time("Assessment.findPageByOverallRiskAfter(mid, 50)",
+                    () -> assessments.findPageByOverallRiskAfter(midRisk, midId, page).size());
+            time("Assessment.streamAll", () -> drain(assessments.streamAll(), true));
+            time("Assessment.streamSnapshots", () -> drain(assessments.streamSnapshots(), false));
+            time("Assessment.streamForExport(CRITICAL, 30 days)", () -> drain(assessments.streamForExport(
+                    midCreatedAt.minusDays(30), midCreatedAt, Assessment.Priority.CRITICAL,
+                    null, null, null, null), true));
+            time("Assessment.summarizeByPriorityAndSiteType", () -> assessments.summarizeByPriorityAndSiteType().size());
+            timeReadWrite("Assessment.findByIdForUpdate", () -> assessments.findByIdForUpdate(midId).isPresent() ? 1 : 0);
+            // Seeded rows all carry change sequence 0, so the seek lands on the id tie-breaker
+            time("Assessment.findChangedAfter(mid, 50)",
+                    () -> assessments.findChangedAfter(0, midId, Long.MAX_VALUE, page).size());
+
+            time("HealthSignal.findByAreaIdOrderBySignalDateDesc", () -> signals.findByAreaIdOrderBySignalDateDesc(area).size());
+            time("HealthSignal.findBySignalDateBetween(7 days)",
+                    () -> signals.findBySignalDateBetweenOrderBySignalDateDesc(latest.minusDays(7), latest).size());
+            time("HealthSignal.findBySignalTypeAndSignalLevel", () -> signals.findBySignalTypeAndSignalLevel(
+                    HealthSignal.SignalType.RESPIRATORY, HealthSignal.SignalLevel.ELEVATED).size());
+            time("HealthSignal.countElevatedSignals", () -> signals.countElevatedSignals().intValue());
+            time("HealthSignal.findRecentSignals(30 days)", () -> signals.findRecentSignals(monthAgo).size());
+            time("HealthSignal.streamForExport(area, 30 days)",
+                    () -> drain(signals.streamForExport(monthAgo, latest, area, null), true));
+            time("HealthSignal.streamSnapshotsBetween(30 days)",
+                    () -> drain(signals.streamSnapshotsBetween(monthAgo, latest), false));
+            time("HealthSignal.findTop10ByOrderByCreatedAtDesc", () -> signals.findTop10ByOrderByCreatedAtDesc().size());
+            time("HealthSignal.findAreasWithElevatedSignals", () -> signals.findAreasWithElevatedSignals().size());
+            time("HealthSignal.findWithinBounds(0.05 deg)",
+                    () -> signals.findWithinBounds(31.40, 34.30, 31.45, 34.35).size());
+            time("HealthSignal.findPageBySignalDate(50)", () -> signals.findPageBySignalDate(page).size());
+            time("HealthSignal.findPageBySignalDateAfter(mid, 50)",
+                    () -> signals.findPageBySignalDateAfter(midDate, midSignalId, page).size());
+            time("HealthSignal.findRecentPage(30 days, 50)", () -> signals.findRecentPage(monthAgo, page).size());
+            time("HealthSignal.findRecentPageAfter(mid, 50)",
+                    () -> signals.findRecentPageAfter(monthAgo, midDate, midSignalId, page).size());
+            time("HealthSignal.findChangedAfter(mid, 50)",
+                    () -> signals.findChangedAfter(0, midSignalId, Long.MAX_VALUE, page).size());
+            return results;
+        }
+
+        private int drain(Stream<?> rows, boolean detach) {
+            int[] count = {0};
+            try (rows) {
+                rows.forEach(row -> {
+                    count[0]++;
+                    if (detach) {
+                        entityManager.detach(row);
+                    }
+                });
+            }
+            return count[0];
+        }
+
+        private void time(String name, Supplier<Integer> query) {
+            time(name, readOnly, query);
+        }
+
+        private void timeReadWrite(String name, Supplier<Integer> query) {
+            time(name, readWrite, query);
+        }
+
+        /**
+         * Runs the query in a fresh transaction per sample, clearing the
+         * persistence context in between so no sample is served from it.
+         */
+        private void time(String name, TransactionTemplate transaction, Supplier<Integer> query) {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                sample(transaction, query);
+            }
+            int rows = 0;
+            List<Long> samples = new ArrayList<>();
+            long budgetStart = System.nanoTime();
+            while (samples.size() < MAX_SAMPLES
+                    && (samples.size() < MIN_SAMPLES || System.nanoTime() - budgetStart < SAMPLE_BUDGET_NANOS)) {
+                long[] result = sample(transaction, query);
+                rows = (int) result[0];
+                samples.add(result[1]);
+            }
+            long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            Timing timing = new Timing(rows,
+                    sorted[sorted.length / 2] / 1e6,
+                    sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.95) - 1)] / 1e6,
+                    sorted.length);
+            results.put(name, timing);
+            System.out.printf(Locale.ROOT, "%-58s %9d rows  %s ms  (%d samples)%n",
+                    name, timing.rows(), format(timing), timing.samples());
+        }
+
+        private long[] sample(TransactionTemplate transaction, Supplier<Integer> query) {
+            long start = System.nanoTime();
+            Integer rows = transaction.execute(status -> {
+                int count = query.get();
+                entityManager.clear();
+                return count;
+            });
+            return new long[]{rows, System.nanoTime() - start};
+        }
+    }
+}
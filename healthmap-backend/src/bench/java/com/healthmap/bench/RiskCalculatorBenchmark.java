@@ -0,0 +1,115 @@
+package com.healthmap.bench;
+
+import com.healthmap.model.Assessment;
+import com.healthmap.service.RiskCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup-table {@link RiskCalculator} against the rule-evaluating
+ * {@link LegacyRiskCalculator}, per assessment, over a fixed mix of random
+ * site observations. Setup first checks both agree on every input combination.
+ * <pre>
+ * mvn -Pbench compile exec:exec@jmh -Djmh.args=RiskCalculatorBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class RiskCalculatorBenchmark {
+
+    private static final int SITES = 1024;
+    private static final Assessment.BuildingAge[] AGES = {
+            null, Assessment.BuildingAge.OLD, Assessment.BuildingAge.MODERN, Assessment.BuildingAge.UNKNOWN
+    };
+
+    private final RiskCalculator table = new RiskCalculator();
+    private final LegacyRiskCalculator legacy = new LegacyRiskCalculator();
+    private final Assessment[] sites = new Assessment[SITES];
+
+    @Setup
+    public void setUp() {
+        for (int key = 0; key < 128; key++) {
+            Assessment expected = site(AGES[key & 3], key >>> 2);
+            Assessment actual = site(AGES[key & 3], key >>> 2);
+            legacy.calculateRisks(expected);
+            table.calculateRisks(actual);
+            if (!Objects.equals(expected.getOverallRisk(), actual.getOverallRisk())
+                    || !Objects.equals(expected.getAsbestosRisk(), actual.getAsbestosRisk())
+                    || !Objects.equals(expected.getWaterRisk(), actual.getWaterRisk())
+                    || expected.getPriority() != actual.getPriority()
+                    || !expected.getMaterialType().equals(actual.getMaterialType())
+                    || !legacy.generateRecommendation(expected).equals(table.generateRecommendation(actual))) {
+                throw new IllegalStateException("Lookup table disagrees with the rules for input " + key);
+            }
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < SITES; i++) {
+            sites[i] = site(AGES[random.nextInt(4)], random.nextInt(32));
+            legacy.calculateRisks(sites[i]);
+        }
+    }
+
+    private static Assessment site(Assessment.BuildingAge age, int flags) {
+        return Assessment.builder()
+                .buildingAge(age)
+                .dustPresent((flags & 1) != 0)
+                .oldMaterials((flags & 2) != 0)
+                .nearPopulation((flags & 4) != 0)
+                .sewageVisible((flags & 8) != 0)
+                .standingWater((flags & 16) != 0)
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SITES)
+    public void scoreLegacy(Blackhole blackhole) {
+        for (Assessment site : sites) {
+            legacy.calculateRisks(site);
+            blackhole.consume(site.getPriority());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SITES)
+    public void scoreTable(Blackhole blackhole) {
+        for (Assessment site : sites) {
+            table.calculateRisks(site);
+            blackhole.consume(site.getPriority());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SITES)
+    public void recommendationLegacy(Blackhole blackhole) {
+        for (Assessment site : sites) {
+            blackhole.consume(legacy.generateRecommendation(site));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SITES)
+    public void recommendationTable(Blackhole blackhole) {
+        for (Assessment site : sites) {
+            blackhole.consume(table.generateRecommendation(site));
+        }
+    }
+}
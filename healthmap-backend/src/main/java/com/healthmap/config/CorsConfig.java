@@ -29,7 +29,9 @@ public class CorsConfig {
                 "Authorization",
                 "X-Requested-With",
                 "Access-Control-Request-Method",
-                "Access-Control-Request-Headers"
+                "Access-Control-Request-Headers",
+                "Last-Event-ID",
+                "Upload-Offset"
         ));
         corsConfiguration.setExposedHeaders(List.of(
                 "Origin",
@@ -37,9 +39,11 @@ public class CorsConfig {
                 "Accept",
                 "Authorization",
                 "Access-Control-Allow-Origin",
-                "Access-Control-Allow-Credentials"
+                "Access-Control-Allow-Credentials",
+                "Upload-Offset",
+                "Location"
         ));
-        corsConfiguration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        corsConfiguration.setAllowedMethods(List.of("GET", "HEAD", "POST", "PUT", "DELETE", "OPTIONS"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", corsConfiguration);
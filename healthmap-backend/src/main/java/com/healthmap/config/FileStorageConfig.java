@@ -3,16 +3,19 @@ package com.healthmap.config;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+/**
+ * Creates the upload directory. Its contents are laid out by
+ * {@link com.healthmap.service.ContentStore} and served only through
+ * /api/files, which maps file names to stored content.
+ */
 @Configuration
-public class FileStorageConfig implements WebMvcConfigurer {
+public class FileStorageConfig {
 
     @Value("${file.upload-dir}")
     private String uploadDir;
@@ -28,11 +31,4 @@ public class FileStorageConfig implements WebMvcConfigurer {
             throw new RuntimeException("Could not create upload directory: " + uploadDir, e);
         }
     }
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String absolutePath = Paths.get(uploadDir).toAbsolutePath().toUri().toString();
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(absolutePath);
-    }
 }
@@ -2,13 +2,20 @@ package com.healthmap.controller;
 
 import com.healthmap.dto.AssessmentRequest;
 import com.healthmap.dto.AssessmentResponse;
-import com.healthmap.dto.GeoJsonResponse;
+import com.healthmap.dto.BatchResponse;
+import com.healthmap.dto.ChangesResponse;
+import com.healthmap.dto.NearbyAssessmentResponse;
+import com.healthmap.dto.PageResponse;
 import com.healthmap.service.AssessmentService;
+import com.healthmap.service.BoundingBox;
+import com.healthmap.service.DataVersion;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,6 +25,8 @@ import java.util.List;
 public class AssessmentController {
 
     private final AssessmentService assessmentService;
+    private final DataVersion dataVersion;
+    private final ResponseCache responseCache;
 
     @PostMapping
     public ResponseEntity<AssessmentResponse> createAssessment(
@@ -26,10 +35,32 @@ public class AssessmentController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Create many assessments in one transaction; invalid items are reported, not fatal
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse<AssessmentResponse>> createAssessments(
+            @RequestBody List<AssessmentRequest> requests) {
+        BatchResponse<AssessmentResponse> response = assessmentService.createAssessments(requests);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     @GetMapping
-    public ResponseEntity<List<AssessmentResponse>> getAllAssessments() {
-        List<AssessmentResponse> assessments = assessmentService.getAllAssessments();
-        return ResponseEntity.ok(assessments);
+    public ResponseEntity<PageResponse<AssessmentResponse>> getAllAssessments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        PageResponse<AssessmentResponse> page = assessmentService.getAllAssessments(cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Delta sync: assessments written and ids deleted since the token
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ChangesResponse<AssessmentResponse>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(assessmentService.getChanges(since, limit));
     }
 
     @GetMapping("/{id}")
@@ -53,9 +84,11 @@ public class AssessmentController {
     }
 
     @GetMapping("/priorities")
-    public ResponseEntity<List<AssessmentResponse>> getPrioritizedAssessments() {
-        List<AssessmentResponse> assessments = assessmentService.getPrioritizedAssessments();
-        return ResponseEntity.ok(assessments);
+    public ResponseEntity<PageResponse<AssessmentResponse>> getPrioritizedAssessments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        PageResponse<AssessmentResponse> page = assessmentService.getPrioritizedAssessments(cursor, limit);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/recent")
@@ -64,9 +97,44 @@ public class AssessmentController {
         return ResponseEntity.ok(assessments);
     }
 
+    @GetMapping("/near")
+    public ResponseEntity<List<NearbyAssessmentResponse>> getAssessmentsNear(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<NearbyAssessmentResponse> assessments = assessmentService.findNear(lat, lon, radiusKm, limit);
+        return ResponseEntity.ok(assessments);
+    }
+
+    @GetMapping("/nearest")
+    public ResponseEntity<List<NearbyAssessmentResponse>> getNearestAssessments(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") int k) {
+        List<NearbyAssessmentResponse> assessments = assessmentService.findNearest(lat, lon, k);
+        return ResponseEntity.ok(assessments);
+    }
+
+    /**
+     * All assessments as GeoJSON points, or, when bbox and zoom are given,
+     * the clusters (or points at high zoom) visible in that viewport.
+     * Served by assessment data version (ETag / 304).
+     */
     @GetMapping("/geojson")
-    public ResponseEntity<GeoJsonResponse> getGeoJson() {
-        GeoJsonResponse geoJson = assessmentService.getGeoJson();
-        return ResponseEntity.ok(geoJson);
+    public ResponseEntity<StreamingResponseBody> getGeoJson(
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) Integer zoom,
+            WebRequest request) {
+        String version = "a" + dataVersion.assessments();
+        if (bbox == null && zoom == null) {
+            return responseCache.respond(request, "geojson", version, assessmentService::writeGeoJson);
+        } else if (bbox != null && zoom != null) {
+            BoundingBox box = BoundingBox.parse(bbox);
+            return responseCache.respond(request, "geojson:" + bbox + ":" + zoom, version,
+                    out -> assessmentService.writeViewportGeoJson(out, box, zoom));
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
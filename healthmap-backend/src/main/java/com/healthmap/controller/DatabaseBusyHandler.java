@@ -0,0 +1,50 @@
+package com.healthmap.controller;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+/**
+ * Answers requests that got no database connection within
+ * {@code spring.datasource.hikari.connection-timeout} with a 503 and
+ * Retry-After, so a request spike beyond what the pool serves is shed and
+ * retried rather than reported as a server fault. Any other resource failure,
+ * such as a database that is down, is rethrown to the normal error handling:
+ * telling clients to retry in a second would hide an outage.
+ */
+@RestControllerAdvice
+public class DatabaseBusyHandler {
+
+    // Hibernate reports a pool timeout as DataAccessResourceFailureException when it acquires the
+    // connection itself, and as CannotCreateTransactionException when a transaction begins with one
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, String>> databaseBusy(RuntimeException e) {
+        if (!isPoolTimeout(e)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Database busy, retry shortly"));
+    }
+
+    /**
+     * Whether the pool gave up waiting for a free connection. Hikari signals
+     * that with SQLTransientConnectionException, and gives it a cause only
+     * when its attempts to open new connections were failing as well.
+     */
+    private static boolean isPoolTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return cause.getCause() == null;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.healthmap.controller;
+
+import com.healthmap.service.ChangeEventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final ChangeEventBroadcaster changeEventBroadcaster;
+
+    /**
+     * Server-Sent Events stream of committed assessment, health signal and stats changes;
+     * reconnects resume after Last-Event-ID, or get a reset for an id from another server run
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        String resumeAfter = lastEventId == null || lastEventId.isBlank() ? null : lastEventId.trim();
+        SseEmitter emitter = changeEventBroadcaster.subscribe(resumeAfter);
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event stream clients");
+        }
+        return emitter;
+    }
+}
@@ -0,0 +1,90 @@
+package com.healthmap.controller;
+
+import com.healthmap.model.Assessment;
+import com.healthmap.model.HealthSignal;
+import com.healthmap.service.AreaGrid;
+import com.healthmap.service.BulkRecordParser;
+import com.healthmap.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * Stream assessments as CSV or NDJSON, filtered by creation date, priority and grid area
+     */
+    @GetMapping("/assessments")
+    public ResponseEntity<StreamingResponseBody> exportAssessments(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Assessment.Priority priority,
+            @RequestParam(required = false) String areaId) {
+        BulkRecordParser.Format exportFormat = parseFormat(format);
+        checkRange(from, to);
+        if (areaId != null && AreaGrid.parseAreaId(areaId) == AreaGrid.NO_CELL) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "areaId must look like AREA_<lat>_<lon>");
+        }
+        return attachment("assessments", exportFormat,
+                out -> exportService.writeAssessments(out, exportFormat, from, to, priority, areaId));
+    }
+
+    /**
+     * Stream health signals as CSV or NDJSON, filtered by signal date, area and level
+     */
+    @GetMapping("/health-signals")
+    public ResponseEntity<StreamingResponseBody> exportHealthSignals(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String areaId,
+            @RequestParam(required = false) HealthSignal.SignalLevel signalLevel) {
+        BulkRecordParser.Format exportFormat = parseFormat(format);
+        checkRange(from, to);
+        return attachment("health-signals", exportFormat,
+                out -> exportService.writeHealthSignals(out, exportFormat, from, to, areaId, signalLevel));
+    }
+
+    private static BulkRecordParser.Format parseFormat(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> BulkRecordParser.Format.CSV;
+            case "ndjson" -> BulkRecordParser.Format.NDJSON;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        };
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String name, BulkRecordParser.Format format,
+                                                                    StreamingResponseBody body) {
+        boolean csv = format == BulkRecordParser.Format.CSV;
+        String fileName = name + "-" + LocalDate.now() + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? BulkRecordParser.Format.CSV_TYPE : BulkRecordParser.Format.NDJSON_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
@@ -1,30 +1,38 @@
 package com.healthmap.controller;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.healthmap.dto.UploadSessionRequest;
+import com.healthmap.dto.UploadSessionResponse;
+import com.healthmap.service.ContentStore;
+import com.healthmap.service.ImageVariantService;
+import com.healthmap.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/files")
+@RequiredArgsConstructor
 public class FileController {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    private final ContentStore contentStore;
+    private final ImageVariantService imageVariantService;
+    private final UploadSessionService uploadSessionService;
+    private final FileSender fileSender;
 
     @PostMapping("/upload")
     public ResponseEntity<Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file) {
@@ -39,29 +47,13 @@ public class FileController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Only image files are allowed"));
             }
 
-            // Generate unique filename
+            // Save file under a new name; identical content is stored once
             String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String filename = UUID.randomUUID().toString() + extension;
-
-            // Save file
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            ContentStore.StoredFile stored;
+            try (InputStream in = file.getInputStream()) {
+                stored = contentStore.store(in, ContentStore.extensionOf(originalFilename));
             }
-
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            Map<String, String> response = new HashMap<>();
-            response.put("filename", filename);
-            response.put("path", "/api/files/" + filename);
-            response.put("originalName", originalFilename);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(uploaded(stored, originalFilename));
 
         } catch (IOException e) {
             return ResponseEntity.internalServerError()
@@ -69,30 +61,132 @@ public class FileController {
         }
     }
 
+    /**
+     * Starts a resumable upload of {@code size} bytes; chunks are then PUT to
+     * the returned location.
+     */
+    @PostMapping("/upload-sessions")
+    public ResponseEntity<UploadSessionResponse> createUploadSession(
+            @Valid @RequestBody UploadSessionRequest request) throws IOException {
+        UploadSessionResponse session = uploadSessionService.create(request);
+        return ResponseEntity.created(URI.create("/api/files/upload-sessions/" + session.getId()))
+                .header(UPLOAD_OFFSET, Long.toString(session.getOffset()))
+                .body(session);
+    }
+
+    /**
+     * How much of an upload has arrived; also answers HEAD, with just the
+     * Upload-Offset header.
+     */
+    @GetMapping("/upload-sessions/{id}")
+    public ResponseEntity<UploadSessionResponse> getUploadSession(@PathVariable String id) {
+        return withOffset(uploadSessionService.get(id));
+    }
+
+    /**
+     * Appends the request body (application/octet-stream) to an upload.
+     * {@code Upload-Offset} must be the offset the upload has reached.
+     */
+    @PutMapping("/upload-sessions/{id}")
+    public ResponseEntity<UploadSessionResponse> writeUploadChunk(@PathVariable String id,
+                                                                  @RequestHeader(UPLOAD_OFFSET) long offset,
+                                                                  HttpServletRequest request) throws IOException {
+        return withOffset(uploadSessionService.write(id, offset, request.getInputStream()));
+    }
+
+    /**
+     * Stores a fully received upload, like a single-request upload.
+     */
+    @PostMapping("/upload-sessions/{id}/complete")
+    public ResponseEntity<Map<String, String>> completeUploadSession(@PathVariable String id,
+                                                                     @RequestParam(required = false) String sha256)
+            throws IOException {
+        UploadSessionService.CompletedUpload completed = uploadSessionService.complete(id, sha256);
+        return ResponseEntity.ok(uploaded(completed.file(), completed.originalName()));
+    }
+
+    @DeleteMapping("/upload-sessions/{id}")
+    public ResponseEntity<Void> cancelUploadSession(@PathVariable String id) throws IOException {
+        uploadSessionService.cancel(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Serves an uploaded file, or with {@code variant=thumb|medium} a resized
+     * copy; the original is served until that variant has been generated.
+     * Stored files never change, so they are sent as immutable; the stand-in
+     * original for a pending variant has to be revalidated instead.
+     */
     @GetMapping("/{filename}")
-    public ResponseEntity<Resource> getFile(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+    public void getFile(@PathVariable String filename,
+                        @RequestParam(required = false) String variant,
+                        HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        String hash = contentStore.hashOf(filename);
+        FileSender.FileMetadata file = hash != null ? fileSender.metadata(contentStore.blobPath(hash), filename) : null;
+        if (file == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found: " + filename);
+        }
 
-            if (!resource.exists()) {
-                return ResponseEntity.notFound().build();
+        boolean immutable = true;
+        if (variant != null) {
+            Path variantPath = imageVariantService.variantPath(hash, parseVariant(variant));
+            FileSender.FileMetadata resized = fileSender.metadata(variantPath);
+            if (resized != null) {
+                file = resized;
+            } else {
+                imageVariantService.schedule(hash);
+                immutable = false;
             }
+        }
+        fileSender.send(request, response, file, filename, immutable);
+    }
 
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+    /**
+     * Removes an uploaded file name; the content, and its variants, go once
+     * no other name refers to them.
+     */
+    @DeleteMapping("/{filename}")
+    public ResponseEntity<Void> deleteFile(@PathVariable String filename) throws IOException {
+        String hash = contentStore.hashOf(filename);
+        ContentStore.Removal removal = hash != null
+                ? contentStore.delete(filename, imageVariantService::delete)
+                : ContentStore.Removal.NOT_FOUND;
+        if (removal == ContentStore.Removal.NOT_FOUND) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found: " + filename);
+        }
+        if (removal == ContentStore.Removal.BLOB_DELETED) {
+            fileSender.forget(contentStore.blobPath(hash));
+            for (ImageVariantService.Variant variant : ImageVariantService.Variant.values()) {
+                fileSender.forget(imageVariantService.variantPath(hash, variant));
             }
+        }
+        return ResponseEntity.noContent().build();
+    }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+    private Map<String, String> uploaded(ContentStore.StoredFile stored, String originalFilename) {
+        if (!stored.duplicate()) {
+            imageVariantService.schedule(stored.hash());
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("filename", stored.name());
+        response.put("path", "/api/files/" + stored.name());
+        response.put("originalName", originalFilename);
+        response.put("sha256", stored.hash());
+        return response;
+    }
 
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
+    private static ResponseEntity<UploadSessionResponse> withOffset(UploadSessionResponse session) {
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, Long.toString(session.getOffset()))
+                .body(session);
+    }
+
+    private static ImageVariantService.Variant parseVariant(String variant) {
+        try {
+            return ImageVariantService.Variant.parse(variant);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "variant must be thumb or medium");
         }
     }
 }
@@ -0,0 +1,203 @@
+package com.healthmap.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends stored files with HTTP caching and byte ranges.
+ *
+ * Size, modification time, content type and ETag are read once per file and
+ * kept in a bounded LRU: stored files are never rewritten in place. A
+ * matching If-None-Match or If-Modified-Since is answered with 304, a single
+ * Range (subject to If-Range) with 206, so an interrupted download resumes
+ * where it stopped. The bytes go out through Tomcat's sendfile when the
+ * connector supports it, which hands the file region to the kernel after the
+ * handler returns; otherwise through {@link FileChannel#transferTo}.
+ */
+@Component
+public class FileSender {
+
+    /**
+     * What is known about a stored file; the ETag is derived from size and
+     * modification time.
+     */
+    public record FileMetadata(Path path, long size, long lastModified, String contentType, String etag) {
+    }
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable()
+            .getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    private final Map<Path, FileMetadata> metadata;
+
+    public FileSender(@Value("${app.files.metadata-cache-size:10000}") int cacheSize) {
+        this.metadata = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, FileMetadata> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Metadata of a regular file, from the cache or read once; null when
+     * there is no such file (which is not cached, as it may appear later).
+     */
+    public FileMetadata metadata(Path path) throws IOException {
+        return metadata(path, path.getFileName().toString());
+    }
+
+    /**
+     * As {@link #metadata(Path)}, for a file stored without an extension; the
+     * content type comes from the name it is served under.
+     */
+    public FileMetadata metadata(Path path, String name) throws IOException {
+        synchronized (metadata) {
+            FileMetadata cached = metadata.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String contentType = MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        FileMetadata file = new FileMetadata(path, size, lastModified, contentType, etag);
+        synchronized (metadata) {
+            metadata.put(path, file);
+        }
+        return file;
+    }
+
+    /**
+     * Drops a file that has been deleted from the cache.
+     */
+    public void forget(Path path) {
+        synchronized (metadata) {
+            metadata.remove(path);
+        }
+    }
+
+    /**
+     * Writes a file, or a 304 / 206 / 416 as the request's validators and
+     * Range call for. {@code immutable} says the URL will always name these
+     * bytes, so clients may cache them for a year without revalidating.
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, FileMetadata file,
+                     String downloadName, boolean immutable) throws IOException {
+        // Set before the conditional check so a 304 carries it as well
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+            return;
+        }
+
+        long size = file.size();
+        long start = 0;
+        long end = size - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(file.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + downloadName + "\"");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, file)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // A malformed Range is ignored
+                ranges = List.of();
+            }
+            // Several ranges are not worth a multipart body for photos; the whole file is a valid answer
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    /**
+     * If-Range lets a client resume only while the file is the one it
+     * started with; otherwise the whole file is sent.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, FileMetadata file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(file.etag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == file.lastModified() / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
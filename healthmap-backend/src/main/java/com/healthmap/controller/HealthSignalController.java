@@ -1,15 +1,33 @@
 package com.healthmap.controller;
 
+import com.healthmap.dto.ChangesResponse;
+import com.healthmap.dto.HealthSignalAnomalyResponse;
 import com.healthmap.dto.HealthSignalRequest;
 import com.healthmap.dto.HealthSignalResponse;
-import com.healthmap.dto.HealthSignalStatsResponse;
+import com.healthmap.dto.IngestSummary;
+import com.healthmap.dto.PageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthmap.service.BulkRecordParser;
+import com.healthmap.service.DataVersion;
+import com.healthmap.service.HealthSignalIngestService;
+import com.healthmap.service.HealthSignalRollupStore;
 import com.healthmap.service.HealthSignalService;
+import com.healthmap.service.SignalAnomalyDetector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -19,7 +37,15 @@ import java.util.List;
 @Slf4j
 public class HealthSignalController {
 
+    private static final int MAX_TIMESERIES_DAYS = 3660;
+
     private final HealthSignalService healthSignalService;
+    private final HealthSignalIngestService healthSignalIngestService;
+    private final HealthSignalRollupStore healthSignalRollupStore;
+    private final SignalAnomalyDetector signalAnomalyDetector;
+    private final DataVersion dataVersion;
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
     /**
      * Create a new health signal entry
@@ -27,28 +53,54 @@ public class HealthSignalController {
     @PostMapping
     public ResponseEntity<HealthSignalResponse> createHealthSignal(
             @RequestBody HealthSignalRequest request) {
-        log.info("Received health signal creation request for area: {}", request.getAreaName());
+        log.debug("Received health signal creation request for area: {}", request.getAreaName());
         HealthSignalResponse response = healthSignalService.createHealthSignal(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     /**
-     * Get all health signals
+     * Bulk-load health signals from an NDJSON or CSV body, written in batches as it is read
+     */
+    @PostMapping(value = "/stream", consumes = {"application/x-ndjson", "application/jsonl", "text/csv"})
+    public ResponseEntity<IngestSummary> streamHealthSignals(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        IngestSummary summary = healthSignalIngestService.ingest(
+                body, BulkRecordParser.Format.fromContentType(contentType));
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Get health signals, one cursor page at a time
      */
     @GetMapping
-    public ResponseEntity<List<HealthSignalResponse>> getAllHealthSignals() {
-        List<HealthSignalResponse> signals = healthSignalService.getAllHealthSignals();
-        return ResponseEntity.ok(signals);
+    public ResponseEntity<PageResponse<HealthSignalResponse>> getAllHealthSignals(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        PageResponse<HealthSignalResponse> page = healthSignalService.getAllHealthSignals(cursor, limit);
+        return ResponseEntity.ok(page);
     }
 
     /**
-     * Get recent health signals (last N days)
+     * Get recent health signals (last N days), one cursor page at a time
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<HealthSignalResponse>> getRecentHealthSignals(
-            @RequestParam(defaultValue = "7") int days) {
-        List<HealthSignalResponse> signals = healthSignalService.getRecentHealthSignals(days);
-        return ResponseEntity.ok(signals);
+    public ResponseEntity<PageResponse<HealthSignalResponse>> getRecentHealthSignals(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        PageResponse<HealthSignalResponse> page = healthSignalService.getRecentHealthSignals(days, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Delta sync: signals written and ids deleted since the token
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ChangesResponse<HealthSignalResponse>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(healthSignalService.getChanges(since, limit));
     }
 
     /**
@@ -62,12 +114,59 @@ public class HealthSignalController {
     }
 
     /**
-     * Get health signal statistics
+     * Get health signal statistics, served by signal data version (ETag / 304)
      */
     @GetMapping("/stats")
-    public ResponseEntity<HealthSignalStatsResponse> getHealthSignalStats() {
-        HealthSignalStatsResponse stats = healthSignalService.getHealthSignalStats();
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<StreamingResponseBody> getHealthSignalStats(WebRequest request) {
+        return responseCache.respond(request, "health-signal-stats", "s" + dataVersion.healthSignals(),
+                out -> objectMapper.writeValue(out, healthSignalService.getHealthSignalStats()));
+    }
+
+    /**
+     * Signal counts per day or week for one area (or all areas) from the daily
+     * rollups, served by signal data version (ETag / 304). Defaults to the last
+     * 30 days, or 12 weeks for bucket=week.
+     */
+    @GetMapping("/timeseries")
+    public ResponseEntity<StreamingResponseBody> getTimeSeries(
+            @RequestParam(required = false) String areaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket,
+            WebRequest request) {
+        HealthSignalRollupStore.Bucket buckets;
+        try {
+            buckets = HealthSignalRollupStore.Bucket.parse(bucket);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bucket must be day or week");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from
+                : buckets == HealthSignalRollupStore.Bucket.WEEK ? end.minusWeeks(12).plusDays(1) : end.minusDays(29);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_TIMESERIES_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "range must not exceed " + MAX_TIMESERIES_DAYS + " days");
+        }
+        String key = "health-signal-timeseries:" + areaId + ":" + start + ":" + end + ":" + buckets;
+        return responseCache.respond(request, key, "s" + dataVersion.healthSignals(),
+                out -> objectMapper.writeValue(out, healthSignalRollupStore.timeSeries(areaId, start, end, buckets)));
+    }
+
+    /**
+     * Days on which an area's count of a signal type rose significantly above
+     * its baseline, flagged online as signals arrive
+     */
+    @GetMapping("/anomalies")
+    public ResponseEntity<List<HealthSignalAnomalyResponse>> getAnomalies(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) String areaId) {
+        if (days < 1 || days > 366) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must be between 1 and 366");
+        }
+        return ResponseEntity.ok(signalAnomalyDetector.recentAnomalies(days, areaId));
     }
 
     /**
@@ -0,0 +1,27 @@
+package com.healthmap.controller;
+
+import com.healthmap.dto.ImportJobResponse;
+import com.healthmap.service.DropDirectoryImporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final DropDirectoryImporter dropDirectoryImporter;
+
+    /**
+     * Progress of the most recent drop-directory imports, newest first
+     */
+    @GetMapping
+    public ResponseEntity<List<ImportJobResponse>> getImports() {
+        return ResponseEntity.ok(dropDirectoryImporter.recentJobs());
+    }
+}
@@ -0,0 +1,150 @@
+package com.healthmap.controller;
+
+import com.healthmap.service.DataVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves read-heavy JSON endpoints by data version. The version string,
+ * prefixed with the {@link DataVersion#epoch()} it counts from, becomes a
+ * strong ETag, so a matching If-None-Match is answered with 304 before any
+ * service code runs. Otherwise the last body produced for the key
+ * at that version is replayed, or the response is generated, streamed to the
+ * client and copied into an LRU cache bounded by the total size of the bodies
+ * it holds (bodies above the per-entry limit are streamed but not kept).
+ */
+@Component
+public class ResponseCache {
+
+    private record Entry(String version, byte[] body) {
+    }
+
+    private final DataVersion dataVersion;
+    private final long maxBytes;
+    private final int maxEntryBytes;
+
+    // Guarded by cache
+    private final Map<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public ResponseCache(DataVersion dataVersion,
+                         @Value("${app.response-cache.max-bytes:33554432}") long maxBytes,
+                         @Value("${app.response-cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        this.dataVersion = dataVersion;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes, maxBytes);
+    }
+
+    /**
+     * Response for the resource identified by key in the given data version,
+     * or null when the request's If-None-Match already names that version
+     * (the 304 has then been prepared on the response).
+     */
+    public ResponseEntity<StreamingResponseBody> respond(WebRequest request, String key, String version,
+                                                         StreamingResponseBody writer) {
+        // Counters restart with the server, stored data does not
+        String etag = "\"" + dataVersion.epoch() + "." + version + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        StreamingResponseBody body;
+        if (entry != null && entry.version().equals(version)) {
+            byte[] bytes = entry.body();
+            body = out -> out.write(bytes);
+        } else {
+            body = out -> {
+                CopyingOutputStream copy = new CopyingOutputStream(out, maxEntryBytes);
+                writer.writeTo(copy);
+                copy.flush();
+                byte[] bytes = copy.copied();
+                if (bytes != null) {
+                    put(key, new Entry(version, bytes));
+                }
+            };
+        }
+        // checkNotModified has already set the ETag header
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private void put(String key, Entry entry) {
+        synchronized (cache) {
+            Entry replaced = cache.put(key, entry);
+            cachedBytes += entry.body().length - (replaced == null ? 0 : replaced.body().length);
+            // Least recently used first; the new entry is last and fits on its own
+            Iterator<Entry> eldest = cache.values().iterator();
+            while (cachedBytes > maxBytes) {
+                cachedBytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Passes writes through while keeping a copy up to a limit. Close only
+     * flushes: the servlet stream belongs to the container.
+     */
+    private static final class CopyingOutputStream extends FilterOutputStream {
+
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CopyingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null && reserve(1)) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null && reserve(len)) {
+                copy.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        byte[] copied() {
+            return copy == null ? null : copy.toByteArray();
+        }
+
+        private boolean reserve(int len) {
+            if (copy.size() + (long) len > limit) {
+                copy = null;
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.healthmap.controller;
+
+import com.healthmap.dto.RescoreJobResponse;
+import com.healthmap.dto.RiskRulesResponse;
+import com.healthmap.service.RescoringService;
+import com.healthmap.service.RiskRulesLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/risk-rules")
+@RequiredArgsConstructor
+public class RiskRulesController {
+
+    private final RiskRulesLoader riskRulesLoader;
+    private final RescoringService rescoringService;
+
+    /**
+     * Rules in force, their source, and progress of the latest rescoring pass
+     */
+    @GetMapping
+    public ResponseEntity<RiskRulesResponse> getRiskRules() {
+        return ResponseEntity.ok(riskRulesLoader.status());
+    }
+
+    /**
+     * Re-run the rescoring pass under the current rules (e.g. after a failed pass)
+     */
+    @PostMapping("/rescore")
+    public ResponseEntity<RescoreJobResponse> rescore() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(rescoringService.rescoreAll("requested"));
+    }
+}
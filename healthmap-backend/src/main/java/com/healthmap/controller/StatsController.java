@@ -1,19 +1,22 @@
 package com.healthmap.controller;
 
-import com.healthmap.dto.CorrelationResponse;
-import com.healthmap.dto.StatsResponse;
-import com.healthmap.model.Assessment;
-import com.healthmap.model.Assessment.Priority;
-import com.healthmap.repository.AssessmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthmap.service.AssessmentStatsAggregate;
 import com.healthmap.service.CorrelationService;
+import com.healthmap.service.DataVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -21,83 +24,45 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class StatsController {
 
-    private final AssessmentRepository assessmentRepository;
+    private final AssessmentStatsAggregate assessmentStatsAggregate;
     private final CorrelationService correlationService;
+    private final DataVersion dataVersion;
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Served by assessment data version: ETag / 304 and a cached body until the next write
+     */
     @GetMapping
-    public ResponseEntity<StatsResponse> getStats() {
-        List<Assessment> assessments = assessmentRepository.findAll();
-
-        long total = assessments.size();
-        long critical = assessmentRepository.countByPriority(Priority.CRITICAL);
-        long high = assessmentRepository.countByPriority(Priority.HIGH);
-        long medium = assessmentRepository.countByPriority(Priority.MEDIUM);
-        long low = assessmentRepository.countByPriority(Priority.LOW);
-
-        double avgAsbestos = assessments.stream()
-                .mapToInt(Assessment::getAsbestosRisk)
-                .average()
-                .orElse(0.0);
-
-        double avgWater = assessments.stream()
-                .mapToInt(Assessment::getWaterRisk)
-                .average()
-                .orElse(0.0);
-
-        double avgOverall = assessments.stream()
-                .mapToInt(Assessment::getOverallRisk)
-                .average()
-                .orElse(0.0);
-
-        Map<String, Long> riskDistribution = new HashMap<>();
-        riskDistribution.put("CRITICAL", critical);
-        riskDistribution.put("HIGH", high);
-        riskDistribution.put("MEDIUM", medium);
-        riskDistribution.put("LOW", low);
-
-        Map<String, Long> siteTypeDistribution = new HashMap<>();
-        siteTypeDistribution.put("DEBRIS", assessments.stream()
-                .filter(a -> a.getSiteType() == Assessment.SiteType.DEBRIS)
-                .count());
-        siteTypeDistribution.put("WATER", assessments.stream()
-                .filter(a -> a.getSiteType() == Assessment.SiteType.WATER)
-                .count());
-        siteTypeDistribution.put("BOTH", assessments.stream()
-                .filter(a -> a.getSiteType() == Assessment.SiteType.BOTH)
-                .count());
-
-        StatsResponse response = StatsResponse.builder()
-                .totalAssessments(total)
-                .criticalCount(critical)
-                .highCount(high)
-                .mediumCount(medium)
-                .lowCount(low)
-                .averageAsbestosRisk(Math.round(avgAsbestos * 10.0) / 10.0)
-                .averageWaterRisk(Math.round(avgWater * 10.0) / 10.0)
-                .averageOverallRisk(Math.round(avgOverall * 10.0) / 10.0)
-                .riskDistribution(riskDistribution)
-                .siteTypeDistribution(siteTypeDistribution)
-                .build();
-
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StreamingResponseBody> getStats(WebRequest request) {
+        return responseCache.respond(request, "stats", "a" + dataVersion.assessments(),
+                out -> objectMapper.writeValue(out, assessmentStatsAggregate.getStats()));
     }
 
     @GetMapping("/risk-distribution")
     public ResponseEntity<Map<String, Long>> getRiskDistribution() {
-        Map<String, Long> distribution = new HashMap<>();
-        distribution.put("CRITICAL", assessmentRepository.countByPriority(Priority.CRITICAL));
-        distribution.put("HIGH", assessmentRepository.countByPriority(Priority.HIGH));
-        distribution.put("MEDIUM", assessmentRepository.countByPriority(Priority.MEDIUM));
-        distribution.put("LOW", assessmentRepository.countByPriority(Priority.LOW));
-        return ResponseEntity.ok(distribution);
+        return ResponseEntity.ok(assessmentStatsAggregate.getRiskDistribution());
     }
 
     /**
-     * Get environmental-health correlations
+     * Get environmental-health correlations. With from/to, health signals in
+     * that date range are analyzed instead of the last 30 days. Cached by
+     * assessment and signal data version; the default window also moves daily.
      */
     @GetMapping("/correlations")
-    public ResponseEntity<CorrelationResponse> getCorrelations() {
-        CorrelationResponse correlations = correlationService.analyzeCorrelations();
-        return ResponseEntity.ok(correlations);
+    public ResponseEntity<StreamingResponseBody> getCorrelations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        String version = "a" + dataVersion.assessments() + "-s" + dataVersion.healthSignals();
+        if (from == null && to == null) {
+            return responseCache.respond(request, "correlations", version + "-" + LocalDate.now(),
+                    out -> objectMapper.writeValue(out, correlationService.analyzeCorrelations()));
+        }
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from and to must be given together, from <= to");
+        }
+        return responseCache.respond(request, "correlations:" + from + ":" + to, version,
+                out -> objectMapper.writeValue(out, correlationService.analyzeCorrelations(from, to)));
     }
 }
@@ -0,0 +1,34 @@
+package com.healthmap.controller;
+
+import com.healthmap.service.VectorTileService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/tiles")
+@RequiredArgsConstructor
+public class TileController {
+
+    private static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final VectorTileService vectorTileService;
+
+    /**
+     * Vector tile with "assessments" and "health_signals" point layers
+     */
+    @GetMapping("/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        if (!VectorTileService.isValidTile(z, x, y)) {
+            return ResponseEntity.notFound().build();
+        }
+        byte[] tile = vectorTileService.getTile(z, x, y);
+        return ResponseEntity.ok()
+                .contentType(MVT)
+                .body(tile);
+    }
+}
@@ -0,0 +1,25 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact "assessment" event on the /api/events stream. Deletions carry only
+ * the id and the state before deletion.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssessmentChangeMessage {
+
+    private String type; // CREATED, UPDATED, DELETED
+    private Long id;
+    private double latitude;
+    private double longitude;
+    private String siteType;
+    private String priority;
+    private int overallRisk;
+}
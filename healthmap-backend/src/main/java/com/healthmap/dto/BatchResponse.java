@@ -0,0 +1,34 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch write. Valid items are persisted together; invalid ones
+ * are reported by their position in the request and do not fail the batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse<T> {
+
+    private int received;
+    private int accepted;
+    private int rejected;
+    private List<T> items;
+    private List<ItemError> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        private int index;
+        private List<String> messages;
+    }
+}
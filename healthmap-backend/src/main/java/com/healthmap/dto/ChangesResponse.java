@@ -0,0 +1,25 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rows written and ids deleted since a sync token, in change order. Pass
+ * {@code nextToken} back as {@code since}: while {@code hasMore} it continues
+ * this delta, afterwards it marks the point the client is caught up to.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangesResponse<T> {
+
+    private List<T> items;
+    private List<Long> deleted;
+    private String nextToken;
+    private boolean hasMore;
+}
@@ -0,0 +1,30 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A day on which an area's count of one signal type rose significantly above
+ * its own baseline.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthSignalAnomalyResponse {
+
+    private String areaId;
+    private String signalType;
+    private LocalDate date;
+    private int count;
+    private double expected;   // EWMA baseline of daily counts
+    private double stdDev;
+    private double score;      // standard score: (count - expected) / stdDev
+    private double cusum;      // upper CUSUM including this day, in standard deviations
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,25 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Compact "health-signal" event on the /api/events stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthSignalChangeMessage {
+
+    private String type; // CREATED, DELETED
+    private Long id;
+    private String areaId;
+    private LocalDate signalDate;
+    private String signalType;
+    private String signalLevel;
+}
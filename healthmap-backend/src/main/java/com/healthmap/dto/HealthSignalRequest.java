@@ -1,6 +1,8 @@
 package com.healthmap.dto;
 
 import com.healthmap.model.HealthSignal;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,14 +16,30 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class HealthSignalRequest {
 
+    @NotBlank(message = "Area ID is required")
     private String areaId;
+
+    @NotBlank(message = "Area name is required")
     private String areaName;
+
     private LocalDate signalDate;
+
+    @NotNull(message = "Signal type is required")
     private HealthSignal.SignalType signalType;
+
+    @NotNull(message = "Signal level is required")
     private HealthSignal.SignalLevel signalLevel;
+
+    @NotNull(message = "Source is required")
     private HealthSignal.SignalSource source;
+
     private String notes;
+
+    @NotNull(message = "Latitude is required")
     private Double latitude;
+
+    @NotNull(message = "Longitude is required")
     private Double longitude;
+
     private String reportedBy;
 }
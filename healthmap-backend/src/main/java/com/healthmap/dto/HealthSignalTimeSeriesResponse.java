@@ -0,0 +1,38 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Health signal counts per day or ISO week (Monday start). Every bucket in
+ * the range is listed, including empty ones.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthSignalTimeSeriesResponse {
+
+    private String areaId; // null when summed over all areas
+    private String bucket;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate start;
+        private long total;
+        private long elevated;
+        private Map<String, Map<String, Long>> counts; // signalType -> signalLevel -> signals
+    }
+}
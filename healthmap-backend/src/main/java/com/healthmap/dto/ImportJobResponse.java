@@ -0,0 +1,32 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of one file picked up from the import drop directory.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+
+    private String fileName;
+    private String recordType;
+    private String status;
+    private long fileSizeBytes;
+    private long parsed;
+    private long accepted;
+    private long rejected;
+    private double rowsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    private List<IngestSummary.RowError> errors;
+}
@@ -0,0 +1,38 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a streamed bulk ingest. Only the first rejected rows are listed
+ * so the summary stays small however large the upload was.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestSummary {
+
+    private long received;
+    private long accepted;
+    private long rejected;
+    private int batches;
+    private long durationMs;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    // Line of malformed input that ended the ingest early, null if the whole body was read
+    private Long stoppedAtLine;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
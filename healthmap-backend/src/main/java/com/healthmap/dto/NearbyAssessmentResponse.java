@@ -0,0 +1,25 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyAssessmentResponse {
+
+    private Long id;
+    private Double latitude;
+    private Double longitude;
+    private String siteType;
+    private String priority;
+    private Integer overallRisk;
+    private Integer asbestosRisk;
+    private Integer waterRisk;
+    private String materialType;
+    private String imagePath;
+    private double distanceKm;
+}
@@ -0,0 +1,38 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back as the
+ * {@code cursor} query parameter to fetch the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}; the extra row
+     * only signals that another page exists and is not returned.
+     */
+    public static <E, T> PageResponse<T> of(List<E> rows, int limit,
+                                            Function<E, T> mapper,
+                                            Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        List<T> items = pageRows.stream().map(mapper).toList();
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+        return new PageResponse<>(items, nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,29 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a background pass that rescores every assessment under the
+ * current risk rules.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RescoreJobResponse {
+
+    private String reason;
+    private String status;
+    private long total;
+    private long processed;
+    private long updated;
+    private double rowsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+}
@@ -0,0 +1,26 @@
+package com.healthmap.dto;
+
+import com.healthmap.service.RiskRules;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Risk rules currently in force, where they came from, and the latest
+ * rescoring pass.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskRulesResponse {
+
+    private RiskRules rules;
+    private String source;
+    private LocalDateTime loadedAt;
+    private String lastError;
+    private RescoreJobResponse rescore;
+}
@@ -0,0 +1,27 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * "stats" event on the /api/events stream: the net change one committed
+ * transaction made to the /api/stats and /api/health-signals/stats totals.
+ * Zero entries are left out of the maps.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsDeltaMessage {
+
+    private long totalAssessments;
+    private Map<String, Long> assessmentsByPriority;
+    private long overallRiskSum;
+    private long totalSignals;
+    private long elevatedSignals;
+    private Map<String, Long> signalsByType;
+}
@@ -0,0 +1,25 @@
+package com.healthmap.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    private String filename;
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @NotNull(message = "Size is required")
+    @Positive(message = "Size must be positive")
+    private Long size;
+}
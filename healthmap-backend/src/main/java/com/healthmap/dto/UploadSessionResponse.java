@@ -0,0 +1,25 @@
+package com.healthmap.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a resumable upload: the next chunk starts at {@code offset}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+
+    private String id;
+    private String filename;
+    private String contentType;
+    private long size;
+    private long offset;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,24 @@
+package com.healthmap.event;
+
+/**
+ * Published by the assessment service whenever an assessment is created,
+ * updated or deleted. Listeners should use
+ * {@code @TransactionalEventListener} so they only observe committed changes.
+ *
+ * @param before state prior to the change, {@code null} for CREATED
+ * @param after  state after the change, {@code null} for DELETED
+ */
+public record AssessmentChangedEvent(ChangeType type, AssessmentSnapshot before, AssessmentSnapshot after) {
+
+    public static AssessmentChangedEvent created(AssessmentSnapshot after) {
+        return new AssessmentChangedEvent(ChangeType.CREATED, null, after);
+    }
+
+    public static AssessmentChangedEvent updated(AssessmentSnapshot before, AssessmentSnapshot after) {
+        return new AssessmentChangedEvent(ChangeType.UPDATED, before, after);
+    }
+
+    public static AssessmentChangedEvent deleted(AssessmentSnapshot before) {
+        return new AssessmentChangedEvent(ChangeType.DELETED, before, null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.healthmap.event;
+
+import com.healthmap.model.Assessment;
+import com.healthmap.model.Assessment.Priority;
+import com.healthmap.model.Assessment.SiteType;
+
+/**
+ * Immutable copy of the fields of an {@link Assessment} that derived,
+ * in-memory views depend on. Taken inside the writing transaction so that
+ * listeners running after commit never see a later mutation of the entity.
+ * The change sequence number identifies the row version, so views can tell
+ * which of two snapshots of the same row is newer.
+ */
+public record AssessmentSnapshot(
+        Long id,
+        double latitude,
+        double longitude,
+        SiteType siteType,
+        Priority priority,
+        int asbestosRisk,
+        int waterRisk,
+        int overallRisk,
+        String materialType,
+        String imagePath,
+        long changeSeq
+) {
+
+    public static AssessmentSnapshot of(Assessment assessment) {
+        return new AssessmentSnapshot(
+                assessment.getId(),
+                assessment.getLatitude(),
+                assessment.getLongitude(),
+                assessment.getSiteType(),
+                assessment.getPriority(),
+                assessment.getAsbestosRisk(),
+                assessment.getWaterRisk(),
+                assessment.getOverallRisk(),
+                assessment.getMaterialType(),
+                assessment.getImagePath(),
+                assessment.getChangeSeq() != null ? assessment.getChangeSeq() : 0
+        );
+    }
+}
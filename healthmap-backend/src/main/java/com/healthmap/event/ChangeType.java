@@ -0,0 +1,5 @@
+package com.healthmap.event;
+
+public enum ChangeType {
+    CREATED, UPDATED, DELETED
+}
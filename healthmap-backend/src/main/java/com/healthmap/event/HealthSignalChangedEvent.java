@@ -0,0 +1,20 @@
+package com.healthmap.event;
+
+/**
+ * Published by the health signal service whenever a signal is created or
+ * deleted. Listeners should use {@code @TransactionalEventListener} so they
+ * only observe committed changes.
+ *
+ * @param before state prior to the change, {@code null} for CREATED
+ * @param after  state after the change, {@code null} for DELETED
+ */
+public record HealthSignalChangedEvent(ChangeType type, HealthSignalSnapshot before, HealthSignalSnapshot after) {
+
+    public static HealthSignalChangedEvent created(HealthSignalSnapshot after) {
+        return new HealthSignalChangedEvent(ChangeType.CREATED, null, after);
+    }
+
+    public static HealthSignalChangedEvent deleted(HealthSignalSnapshot before) {
+        return new HealthSignalChangedEvent(ChangeType.DELETED, before, null);
+    }
+}
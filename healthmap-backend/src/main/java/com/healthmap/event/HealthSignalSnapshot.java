@@ -0,0 +1,39 @@
+package com.healthmap.event;
+
+import com.healthmap.model.HealthSignal;
+import com.healthmap.model.HealthSignal.SignalLevel;
+import com.healthmap.model.HealthSignal.SignalType;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the fields of a {@link HealthSignal} that derived,
+ * in-memory views depend on, with the change sequence number of the row
+ * version it was taken from.
+ */
+public record HealthSignalSnapshot(
+        Long id,
+        String areaId,
+        String areaName,
+        LocalDate signalDate,
+        SignalType signalType,
+        SignalLevel signalLevel,
+        double latitude,
+        double longitude,
+        long changeSeq
+) {
+
+    public static HealthSignalSnapshot of(HealthSignal signal) {
+        return new HealthSignalSnapshot(
+                signal.getId(),
+                signal.getAreaId(),
+                signal.getAreaName(),
+                signal.getSignalDate(),
+                signal.getSignalType(),
+                signal.getSignalLevel(),
+                signal.getLatitude(),
+                signal.getLongitude(),
+                signal.getChangeSeq() != null ? signal.getChangeSeq() : 0
+        );
+    }
+}
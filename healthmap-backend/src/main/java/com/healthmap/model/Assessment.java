@@ -5,19 +5,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "assessments")
+// Indexes mirror db/migration/V2__query_indexes.sql and V3 for the create-drop dev schema
+@Table(name = "assessments", indexes = {
+        @Index(name = "idx_assessments_priority", columnList = "priority"),
+        @Index(name = "idx_assessments_overall_risk", columnList = "overall_risk DESC, id DESC"),
+        @Index(name = "idx_assessments_created_at", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_assessments_change_seq", columnList = "change_seq, id")
+})
+@EntityListeners(ChangeSequenceListener.class)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Assessment {
+public class Assessment implements ChangeTracked {
 
+    // Pooled sequence rather than IDENTITY, which would disable JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assessments_seq")
+    @SequenceGenerator(name = "assessments_seq", sequenceName = "assessments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -75,6 +85,11 @@ public class Assessment {
 
     private LocalDateTime updatedAt;
 
+    // Stamped by ChangeSequenceListener; rows written before change tracking carry 0
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long changeSeq;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,27 @@
+package com.healthmap.model;
+
+import com.healthmap.service.ChangeSequence;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Stamps {@link ChangeTracked} entities with the next change sequence number
+ * when they are inserted or flushed dirty. Instantiated through Spring's
+ * bean container while the entity manager factory is being built, so the
+ * sequence (which needs JDBC access set up after it) is looked up on first use.
+ */
+public class ChangeSequenceListener {
+
+    private final ObjectProvider<ChangeSequence> changeSequence;
+
+    public ChangeSequenceListener(ObjectProvider<ChangeSequence> changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void stamp(Object entity) {
+        ((ChangeTracked) entity).setChangeSeq(changeSequence.getObject().next());
+    }
+}
@@ -0,0 +1,12 @@
+package com.healthmap.model;
+
+/**
+ * An entity stamped with a change sequence number on every insert and
+ * update, so delta sync can find the rows written after a client's token.
+ */
+public interface ChangeTracked {
+
+    Long getChangeSeq();
+
+    void setChangeSeq(Long changeSeq);
+}
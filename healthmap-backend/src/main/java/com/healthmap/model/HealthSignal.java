@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -15,15 +16,25 @@ import java.time.LocalDateTime;
  * It monitors unusual patterns in community health to support early intervention.
  */
 @Entity
-@Table(name = "health_signals")
+// Indexes mirror db/migration/V2__query_indexes.sql and V3 for the create-drop dev schema
+@Table(name = "health_signals", indexes = {
+        @Index(name = "idx_health_signals_signal_date", columnList = "signal_date DESC, id DESC"),
+        @Index(name = "idx_health_signals_area_date", columnList = "area_id, signal_date"),
+        @Index(name = "idx_health_signals_level_type", columnList = "signal_level, signal_type"),
+        @Index(name = "idx_health_signals_created_at", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_health_signals_change_seq", columnList = "change_seq, id")
+})
+@EntityListeners(ChangeSequenceListener.class)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class HealthSignal {
+public class HealthSignal implements ChangeTracked {
 
+    // Pooled sequence rather than IDENTITY, which would disable JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "health_signals_seq")
+    @SequenceGenerator(name = "health_signals_seq", sequenceName = "health_signals_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -76,6 +87,11 @@ public class HealthSignal {
 
     private LocalDateTime updatedAt;
 
+    // Stamped by ChangeSequenceListener; rows written before change tracking carry 0
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long changeSeq;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
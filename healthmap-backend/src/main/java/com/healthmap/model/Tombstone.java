@@ -0,0 +1,54 @@
+package com.healthmap.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind by a deleted assessment or health signal, so clients
+ * syncing deltas learn about the deletion. Written in the deleting
+ * transaction and never pruned.
+ */
+@Entity
+// Index mirrors db/migration/V3__change_tracking.sql for the create-drop dev schema
+@Table(name = "tombstones", indexes = {
+        @Index(name = "idx_tombstones_type_change_seq", columnList = "entity_type, change_seq, entity_id")
+})
+@EntityListeners(ChangeSequenceListener.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tombstone implements ChangeTracked {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tombstones_seq")
+    @SequenceGenerator(name = "tombstones_seq", sequenceName = "tombstones_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private Long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+    }
+
+    public enum EntityType {
+        ASSESSMENT, HEALTH_SIGNAL
+    }
+}
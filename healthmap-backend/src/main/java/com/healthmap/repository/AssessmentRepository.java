@@ -1,12 +1,25 @@
 package com.healthmap.repository;
 
+import com.healthmap.event.AssessmentSnapshot;
 import com.healthmap.model.Assessment;
 import com.healthmap.model.Assessment.Priority;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
@@ -24,4 +37,121 @@ public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
     List<Assessment> findHighRiskSites(int minRisk);
 
     List<Assessment> findTop10ByOrderByCreatedAtDesc();
+
+    // Keyset pagination: first page, then seek past the (sort key, id) of the last row seen
+
+    @Query("SELECT a FROM Assessment a ORDER BY a.createdAt DESC, a.id DESC")
+    List<Assessment> findPageByCreatedAt(Limit limit);
+
+    @Query("SELECT a FROM Assessment a " +
+           "WHERE a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Assessment> findPageByCreatedAtAfter(@Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Limit limit);
+
+    @Query("SELECT a FROM Assessment a ORDER BY a.overallRisk DESC, a.id DESC")
+    List<Assessment> findPageByOverallRisk(Limit limit);
+
+    @Query("SELECT a FROM Assessment a " +
+           "WHERE a.overallRisk < :overallRisk OR (a.overallRisk = :overallRisk AND a.id < :id) " +
+           "ORDER BY a.overallRisk DESC, a.id DESC")
+    List<Assessment> findPageByOverallRiskAfter(@Param("overallRisk") int overallRisk,
+                                                @Param("id") Long id,
+                                                Limit limit);
+
+    /**
+     * Assessments written after the (changeSeq, id) position and at or below
+     * {@code until}, in change order, for delta sync.
+     */
+    @Query("SELECT a FROM Assessment a " +
+           "WHERE (a.changeSeq > :changeSeq OR (a.changeSeq = :changeSeq AND a.id > :id)) " +
+           "AND a.changeSeq <= :until " +
+           "ORDER BY a.changeSeq, a.id")
+    List<Assessment> findChangedAfter(@Param("changeSeq") long changeSeq,
+                                      @Param("id") long id,
+                                      @Param("until") long until,
+                                      Limit limit);
+
+    /**
+     * Forward-only cursor over all assessments for streaming responses.
+     * Must be consumed inside a transaction and closed; callers should detach
+     * rows once written so the persistence context stays small.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Assessment a")
+    Stream<Assessment> streamAll();
+
+    /**
+     * Forward-only cursor over all assessments as snapshots, for full
+     * recomputations that only read. No entities are created, so nothing
+     * needs detaching. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.healthmap.event.AssessmentSnapshot(" +
+           "a.id, a.latitude, a.longitude, a.siteType, a.priority, " +
+           "a.asbestosRisk, a.waterRisk, a.overallRisk, a.materialType, a.imagePath, a.changeSeq) " +
+           "FROM Assessment a")
+    Stream<AssessmentSnapshot> streamSnapshots();
+
+    /**
+     * Forward-only cursor for exports, in id order. Null parameters disable
+     * their filter; the window is [from, to). Same consumption rules as
+     * {@link #streamAll()}.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Assessment a " +
+           "WHERE (:from IS NULL OR a.createdAt >= :from) " +
+           "AND (:to IS NULL OR a.createdAt < :to) " +
+           "AND (:priority IS NULL OR a.priority = :priority) " +
+           "AND (:minLat IS NULL OR a.latitude BETWEEN :minLat AND :maxLat) " +
+           "AND (:minLon IS NULL OR a.longitude BETWEEN :minLon AND :maxLon) " +
+           "ORDER BY a.id")
+    Stream<Assessment> streamForExport(@Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("priority") Priority priority,
+                                       @Param("minLat") Double minLat,
+                                       @Param("maxLat") Double maxLat,
+                                       @Param("minLon") Double minLon,
+                                       @Param("maxLon") Double maxLon);
+
+    /**
+     * Loads an assessment with a row lock so concurrent updates and deletes of
+     * the same row are serialised and each sees the committed prior state.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Assessment a WHERE a.id = :id")
+    Optional<Assessment> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Next ids after the given one, in order; used to cut the table into
+     * id ranges for chunked background jobs.
+     */
+    @Query("SELECT a.id FROM Assessment a WHERE a.id > :after ORDER BY a.id")
+    List<Long> findIdsAfter(@Param("after") long after, Limit limit);
+
+    /**
+     * Loads the assessments in [fromId, toId] with row locks, so a chunk
+     * rewrite and concurrent single-row updates are serialised.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Assessment a WHERE a.id BETWEEN :fromId AND :toId")
+    List<Assessment> findRangeForUpdate(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Per (priority, siteType) totals used to rebuild the stats aggregate:
+     * [priority, siteType, count, sum(asbestosRisk), sum(waterRisk), sum(overallRisk)]
+     */
+    @Query("SELECT a.priority, a.siteType, COUNT(a), SUM(a.asbestosRisk), SUM(a.waterRisk), SUM(a.overallRisk) " +
+           "FROM Assessment a GROUP BY a.priority, a.siteType")
+    List<Object[]> summarizeByPriorityAndSiteType();
 }
@@ -1,34 +1,158 @@
-package com.healthmap.repository;
-
-import com.healthmap.model.HealthSignal;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
-
-import java.time.LocalDate;
-import java.util.List;
-
-@Repository
-public interface HealthSignalRepository extends JpaRepository<HealthSignal, Long> {
-
-    List<HealthSignal> findByAreaIdOrderBySignalDateDesc(String areaId);
-
-    List<HealthSignal> findBySignalDateBetweenOrderBySignalDateDesc(LocalDate startDate, LocalDate endDate);
-
-    List<HealthSignal> findBySignalTypeAndSignalLevel(
-            HealthSignal.SignalType signalType,
-            HealthSignal.SignalLevel signalLevel
-    );
-
-    @Query("SELECT COUNT(h) FROM HealthSignal h WHERE h.signalLevel = 'ELEVATED'")
-    Long countElevatedSignals();
-
-    @Query("SELECT h FROM HealthSignal h WHERE h.signalDate >= :startDate ORDER BY h.signalDate DESC")
-    List<HealthSignal> findRecentSignals(@Param("startDate") LocalDate startDate);
-
-    List<HealthSignal> findTop10ByOrderByCreatedAtDesc();
-
-    @Query("SELECT DISTINCT h.areaId FROM HealthSignal h WHERE h.signalLevel = 'ELEVATED'")
-    List<String> findAreasWithElevatedSignals();
-}
+package com.healthmap.repository;
+
+import com.healthmap.event.HealthSignalSnapshot;
+import com.healthmap.model.HealthSignal;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface HealthSignalRepository extends JpaRepository<HealthSignal, Long> {
+
+    List<HealthSignal> findByAreaIdOrderBySignalDateDesc(String areaId);
+
+    List<HealthSignal> findBySignalDateBetweenOrderBySignalDateDesc(LocalDate startDate, LocalDate endDate);
+
+    List<HealthSignal> findBySignalTypeAndSignalLevel(
+            HealthSignal.SignalType signalType,
+            HealthSignal.SignalLevel signalLevel
+    );
+
+    @Query("SELECT COUNT(h) FROM HealthSignal h WHERE h.signalLevel = 'ELEVATED'")
+    Long countElevatedSignals();
+
+    @Query("SELECT h FROM HealthSignal h WHERE h.signalDate >= :startDate ORDER BY h.signalDate DESC")
+    List<HealthSignal> findRecentSignals(@Param("startDate") LocalDate startDate);
+
+    /**
+     * Forward-only cursor for exports, in id order. Null parameters disable
+     * their filter; dates are inclusive. Must be consumed inside a
+     * transaction and closed; callers should detach rows once written.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM HealthSignal h " +
+           "WHERE (:from IS NULL OR h.signalDate >= :from) " +
+           "AND (:to IS NULL OR h.signalDate <= :to) " +
+           "AND (:areaId IS NULL OR h.areaId = :areaId) " +
+           "AND (:signalLevel IS NULL OR h.signalLevel = :signalLevel) " +
+           "ORDER BY h.id")
+    Stream<HealthSignal> streamForExport(@Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         @Param("areaId") String areaId,
+                                         @Param("signalLevel") HealthSignal.SignalLevel signalLevel);
+
+    /**
+     * Forward-only cursor over signals dated within [startDate, endDate] as
+     * snapshots. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.healthmap.event.HealthSignalSnapshot(" +
+           "h.id, h.areaId, h.areaName, h.signalDate, h.signalType, h.signalLevel, h.latitude, h.longitude, " +
+           "h.changeSeq) " +
+           "FROM HealthSignal h WHERE h.signalDate BETWEEN :startDate AND :endDate")
+    Stream<HealthSignalSnapshot> streamSnapshotsBetween(@Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate);
+
+    /**
+     * Forward-only cursor over signals with a change sequence number above
+     * afterSeq as snapshots, in change sequence order, for replaying into the
+     * anomaly detector. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.healthmap.event.HealthSignalSnapshot(" +
+           "h.id, h.areaId, h.areaName, h.signalDate, h.signalType, h.signalLevel, h.latitude, h.longitude, " +
+           "h.changeSeq) " +
+           "FROM HealthSignal h WHERE h.changeSeq > :afterSeq ORDER BY h.changeSeq, h.id")
+    Stream<HealthSignalSnapshot> streamSnapshotsAfterChangeSeq(@Param("afterSeq") long afterSeq);
+
+    List<HealthSignal> findTop10ByOrderByCreatedAtDesc();
+
+    /**
+     * Daily counts used to rebuild the time-series rollups:
+     * [areaId, signalDate, signalType, signalLevel, count]
+     */
+    @Query("SELECT h.areaId, h.signalDate, h.signalType, h.signalLevel, COUNT(h) FROM HealthSignal h " +
+           "GROUP BY h.areaId, h.signalDate, h.signalType, h.signalLevel")
+    List<Object[]> summarizeByAreaDateTypeAndLevel();
+
+    @Query("SELECT DISTINCT h.areaId FROM HealthSignal h WHERE h.signalLevel = 'ELEVATED'")
+    List<String> findAreasWithElevatedSignals();
+
+    @Query("SELECT h FROM HealthSignal h " +
+           "WHERE h.latitude BETWEEN :minLat AND :maxLat AND h.longitude BETWEEN :minLon AND :maxLon")
+    List<HealthSignal> findWithinBounds(@Param("minLat") double minLat,
+                                        @Param("minLon") double minLon,
+                                        @Param("maxLat") double maxLat,
+                                        @Param("maxLon") double maxLon);
+
+    @Query("SELECT new com.healthmap.event.HealthSignalSnapshot(" +
+           "h.id, h.areaId, h.areaName, h.signalDate, h.signalType, h.signalLevel, h.latitude, h.longitude, " +
+           "h.changeSeq) " +
+           "FROM HealthSignal h " +
+           "WHERE h.latitude BETWEEN :minLat AND :maxLat AND h.longitude BETWEEN :minLon AND :maxLon " +
+           "AND h.signalDate >= :since ORDER BY h.signalDate DESC, h.id DESC")
+    List<HealthSignalSnapshot> findSnapshotsWithinBoundsSince(@Param("minLat") double minLat,
+                                                              @Param("minLon") double minLon,
+                                                              @Param("maxLat") double maxLat,
+                                                              @Param("maxLon") double maxLon,
+                                                              @Param("since") LocalDate since,
+                                                              Limit limit);
+
+    // Keyset pagination on (signalDate, id): first page, then seek past the last row seen
+
+    @Query("SELECT h FROM HealthSignal h ORDER BY h.signalDate DESC, h.id DESC")
+    List<HealthSignal> findPageBySignalDate(Limit limit);
+
+    @Query("SELECT h FROM HealthSignal h " +
+           "WHERE h.signalDate < :signalDate OR (h.signalDate = :signalDate AND h.id < :id) " +
+           "ORDER BY h.signalDate DESC, h.id DESC")
+    List<HealthSignal> findPageBySignalDateAfter(@Param("signalDate") LocalDate signalDate,
+                                                 @Param("id") Long id,
+                                                 Limit limit);
+
+    @Query("SELECT h FROM HealthSignal h WHERE h.signalDate >= :startDate " +
+           "ORDER BY h.signalDate DESC, h.id DESC")
+    List<HealthSignal> findRecentPage(@Param("startDate") LocalDate startDate, Limit limit);
+
+    @Query("SELECT h FROM HealthSignal h " +
+           "WHERE h.signalDate >= :startDate " +
+           "AND (h.signalDate < :signalDate OR (h.signalDate = :signalDate AND h.id < :id)) " +
+           "ORDER BY h.signalDate DESC, h.id DESC")
+    List<HealthSignal> findRecentPageAfter(@Param("startDate") LocalDate startDate,
+                                           @Param("signalDate") LocalDate signalDate,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
+    /**
+     * Signals written after the (changeSeq, id) position and at or below
+     * {@code until}, in change order, for delta sync.
+     */
+    @Query("SELECT h FROM HealthSignal h " +
+           "WHERE (h.changeSeq > :changeSeq OR (h.changeSeq = :changeSeq AND h.id > :id)) " +
+           "AND h.changeSeq <= :until " +
+           "ORDER BY h.changeSeq, h.id")
+    List<HealthSignal> findChangedAfter(@Param("changeSeq") long changeSeq,
+                                        @Param("id") long id,
+                                        @Param("until") long until,
+                                        Limit limit);
+}
@@ -0,0 +1,30 @@
+package com.healthmap.repository;
+
+import com.healthmap.model.Tombstone;
+import com.healthmap.model.Tombstone.EntityType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    /**
+     * Deletions of one entity type after the (changeSeq, entityId) position
+     * and at or below {@code until}, in change order.
+     */
+    @Query("SELECT t FROM Tombstone t " +
+           "WHERE t.entityType = :entityType " +
+           "AND (t.changeSeq > :changeSeq OR (t.changeSeq = :changeSeq AND t.entityId > :id)) " +
+           "AND t.changeSeq <= :until " +
+           "ORDER BY t.changeSeq, t.entityId")
+    List<Tombstone> findChangedAfter(@Param("entityType") EntityType entityType,
+                                     @Param("changeSeq") long changeSeq,
+                                     @Param("id") long id,
+                                     @Param("until") long until,
+                                     Limit limit);
+}
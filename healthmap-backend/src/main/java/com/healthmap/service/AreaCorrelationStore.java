@@ -0,0 +1,303 @@
+package com.healthmap.service;
+
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.event.HealthSignalChangedEvent;
+import com.healthmap.event.HealthSignalSnapshot;
+import com.healthmap.model.Assessment;
+import com.healthmap.model.HealthSignal;
+import com.healthmap.repository.HealthSignalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-area accumulators behind /api/stats/correlations.
+ *
+ * Assessments are accumulated per {@link AreaGrid} cell; health signals per
+ * reported areaId, but only while their signalDate is inside the
+ * {@link #RECENT_DAYS} window. In-window signals are kept in day buckets so
+ * that, as the window moves, whole days are expired and subtracted from their
+ * areas without going back to the database.
+ *
+ * Built at startup and kept current from committed assessment and signal
+ * events, ignoring any older than the version held for their row
+ * ({@link RowVersions}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AreaCorrelationStore implements SmartInitializingSingleton {
+
+    public static final int RECENT_DAYS = 30; // Last 30 days for health signals
+
+    private final AssessmentSnapshotLoader assessmentLoader;
+    private final HealthSignalRepository healthSignalRepository;
+    private final ChangeSequence changeSequence;
+
+    private final Map<Long, AssessmentArea> assessmentAreas = new HashMap<>();
+    private final Map<String, SignalArea> signalAreas = new HashMap<>();
+    private final TreeMap<LocalDate, Map<Long, HealthSignalSnapshot>> signalsByDay = new TreeMap<>();
+    private final Map<Long, AssessmentSnapshot> assessments = new HashMap<>();
+    private final RowVersions assessmentVersions = new RowVersions();
+    private final RowVersions signalVersions = new RowVersions();
+
+    private LocalDate windowStart;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        assessmentAreas.clear();
+        assessments.clear();
+        signalAreas.clear();
+        signalsByDay.clear();
+        assessmentVersions.clear();
+        signalVersions.clear();
+
+        assessmentLoader.forEach(this::addAssessment);
+        windowStart = LocalDate.now().minusDays(RECENT_DAYS);
+        for (HealthSignal signal : healthSignalRepository.findRecentSignals(windowStart)) {
+            addSignal(HealthSignalSnapshot.of(signal));
+        }
+        log.info("Area correlation store rebuilt: {} assessment areas, {} signal areas",
+                assessmentAreas.size(), signalAreas.size());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onAssessmentChanged(AssessmentChangedEvent event) {
+        AssessmentSnapshot change = event.after() != null ? event.after() : event.before();
+        AssessmentSnapshot held = assessments.get(change.id());
+        if (!assessmentVersions.isNewer(change.id(), held != null ? held.changeSeq() : null, change.changeSeq(),
+                event.after() == null)) {
+            return;
+        }
+        removeAssessment(change.id());
+        if (event.after() != null) {
+            addAssessment(event.after());
+        } else {
+            assessmentVersions.recordDeletion(change.id(), change.changeSeq(), changeSequence.watermark());
+        }
+    }
+
+    @TransactionalEventListener
+    public synchronized void onHealthSignalChanged(HealthSignalChangedEvent event) {
+        expireSignals();
+        // Signals are only created and deleted, so the date locates the held copy
+        HealthSignalSnapshot change = event.after() != null ? event.after() : event.before();
+        Map<Long, HealthSignalSnapshot> day = signalsByDay.get(change.signalDate());
+        HealthSignalSnapshot held = day != null ? day.get(change.id()) : null;
+        if (!signalVersions.isNewer(change.id(), held != null ? held.changeSeq() : null, change.changeSeq(),
+                event.after() == null)) {
+            return;
+        }
+        if (held != null) {
+            removeSignal(held);
+        }
+        if (event.after() == null) {
+            signalVersions.recordDeletion(change.id(), change.changeSeq(), changeSequence.watermark());
+        } else if (!event.after().signalDate().isBefore(windowStart)) {
+            addSignal(event.after());
+        }
+    }
+
+    /**
+     * Current metrics for every area with assessments or in-window signals.
+     */
+    public synchronized List<AreaMetrics> snapshot() {
+        expireSignals();
+
+        Map<String, AssessmentArea> assessmentsById = new HashMap<>();
+        for (AssessmentArea area : assessmentAreas.values()) {
+            assessmentsById.put(area.areaId, area);
+        }
+
+        List<AreaMetrics> metrics = new ArrayList<>(assessmentsById.size() + signalAreas.size());
+        for (AssessmentArea area : assessmentsById.values()) {
+            metrics.add(toMetrics(area.areaId, area, signalAreas.get(area.areaId)));
+        }
+        for (Map.Entry<String, SignalArea> entry : signalAreas.entrySet()) {
+            if (!assessmentsById.containsKey(entry.getKey())) {
+                metrics.add(toMetrics(entry.getKey(), null, entry.getValue()));
+            }
+        }
+        return metrics;
+    }
+
+    private AreaMetrics toMetrics(String areaId, AssessmentArea assessments, SignalArea signals) {
+        String areaName;
+        Double latitude;
+        Double longitude;
+        if (signals != null) {
+            HealthSignalSnapshot latest = signals.latest();
+            areaName = latest.areaName();
+            latitude = latest.latitude();
+            longitude = latest.longitude();
+        } else {
+            areaName = "Area " + areaId;
+            latitude = assessments.sumLatitude / assessments.count;
+            longitude = assessments.sumLongitude / assessments.count;
+        }
+
+        return new AreaMetrics(
+                areaId,
+                areaName,
+                latitude,
+                longitude,
+                assessments == null ? 0 : assessments.count,
+                assessments == null ? 0 : assessments.riskSum,
+                assessments == null ? 0 : assessments.criticalCount,
+                assessments == null ? 0 : assessments.debrisCount,
+                assessments == null ? 0 : assessments.waterCount,
+                signals == null ? 0 : signals.signals.size(),
+                signals == null ? 0 : signals.elevatedCount,
+                signals != null && signals.elevatedByType[HealthSignal.SignalType.RESPIRATORY.ordinal()] > 0,
+                signals != null && signals.elevatedByType[HealthSignal.SignalType.GASTROINTESTINAL.ordinal()] > 0,
+                signals != null && signals.elevatedByType[HealthSignal.SignalType.SKIN.ordinal()] > 0
+        );
+    }
+
+    private void addAssessment(AssessmentSnapshot a) {
+        long cell = AreaGrid.cellKey(a.latitude(), a.longitude());
+        AssessmentArea area = assessmentAreas.computeIfAbsent(cell, AssessmentArea::new);
+        area.apply(a, 1);
+        assessments.put(a.id(), a);
+    }
+
+    private void removeAssessment(Long id) {
+        AssessmentSnapshot a = assessments.remove(id);
+        if (a == null) {
+            return;
+        }
+        long cell = AreaGrid.cellKey(a.latitude(), a.longitude());
+        AssessmentArea area = assessmentAreas.get(cell);
+        area.apply(a, -1);
+        if (area.count == 0) {
+            assessmentAreas.remove(cell);
+        }
+    }
+
+    private void addSignal(HealthSignalSnapshot s) {
+        signalsByDay.computeIfAbsent(s.signalDate(), d -> new HashMap<>()).put(s.id(), s);
+        signalAreas.computeIfAbsent(s.areaId(), k -> new SignalArea()).add(s);
+    }
+
+    private void removeSignal(HealthSignalSnapshot s) {
+        Map<Long, HealthSignalSnapshot> day = signalsByDay.get(s.signalDate());
+        if (day == null || day.remove(s.id()) == null) {
+            return;
+        }
+        if (day.isEmpty()) {
+            signalsByDay.remove(s.signalDate());
+        }
+        subtractFromArea(s);
+    }
+
+    /**
+     * Drops whole days that have fallen out of the window since the last call.
+     */
+    private void expireSignals() {
+        LocalDate start = LocalDate.now().minusDays(RECENT_DAYS);
+        if (!start.isAfter(windowStart)) {
+            return;
+        }
+        windowStart = start;
+        Map<LocalDate, Map<Long, HealthSignalSnapshot>> expired = signalsByDay.headMap(start);
+        for (Map<Long, HealthSignalSnapshot> day : expired.values()) {
+            for (HealthSignalSnapshot s : day.values()) {
+                subtractFromArea(s);
+            }
+        }
+        expired.clear();
+    }
+
+    private void subtractFromArea(HealthSignalSnapshot s) {
+        SignalArea area = signalAreas.get(s.areaId());
+        area.remove(s);
+        if (area.signals.isEmpty()) {
+            signalAreas.remove(s.areaId());
+        }
+    }
+
+    private static final class AssessmentArea {
+        final String areaId;
+        int count;
+        long riskSum;
+        int criticalCount;
+        int debrisCount;
+        int waterCount;
+        double sumLatitude;
+        double sumLongitude;
+
+        AssessmentArea(long cell) {
+            this.areaId = AreaGrid.areaId(cell);
+        }
+
+        void apply(AssessmentSnapshot a, int sign) {
+            count += sign;
+            riskSum += (long) sign * a.overallRisk();
+            sumLatitude += sign * a.latitude();
+            sumLongitude += sign * a.longitude();
+            if (a.priority() == Assessment.Priority.CRITICAL) {
+                criticalCount += sign;
+            }
+            if (a.siteType() == Assessment.SiteType.DEBRIS || a.siteType() == Assessment.SiteType.BOTH) {
+                debrisCount += sign;
+            }
+            if (a.siteType() == Assessment.SiteType.WATER || a.siteType() == Assessment.SiteType.BOTH) {
+                waterCount += sign;
+            }
+        }
+    }
+
+    private static final class SignalArea {
+        private static final Comparator<HealthSignalSnapshot> RECENCY =
+                Comparator.comparing(HealthSignalSnapshot::signalDate).thenComparing(HealthSignalSnapshot::id);
+
+        final Map<Long, HealthSignalSnapshot> signals = new HashMap<>();
+        final int[] elevatedByType = new int[HealthSignal.SignalType.values().length];
+        int elevatedCount;
+        private HealthSignalSnapshot latest;
+
+        void add(HealthSignalSnapshot s) {
+            signals.put(s.id(), s);
+            if (s.signalLevel() == HealthSignal.SignalLevel.ELEVATED) {
+                elevatedCount++;
+                elevatedByType[s.signalType().ordinal()]++;
+            }
+            if (latest == null || RECENCY.compare(s, latest) > 0) {
+                latest = s;
+            }
+        }
+
+        void remove(HealthSignalSnapshot s) {
+            signals.remove(s.id());
+            if (s.signalLevel() == HealthSignal.SignalLevel.ELEVATED) {
+                elevatedCount--;
+                elevatedByType[s.signalType().ordinal()]--;
+            }
+            if (latest != null && latest.id().equals(s.id())) {
+                latest = null;
+            }
+        }
+
+        HealthSignalSnapshot latest() {
+            if (latest == null) {
+                latest = signals.values().stream().max(RECENCY).orElse(null);
+            }
+            return latest;
+        }
+    }
+}
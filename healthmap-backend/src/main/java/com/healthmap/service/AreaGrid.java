@@ -0,0 +1,67 @@
+package com.healthmap.service;
+
+/**
+ * Simple grid used to group assessments into areas (0.01 degree ~= 1km).
+ *
+ * Cells are identified by a primitive long packing the truncated latitude
+ * and longitude grid indices; the public "AREA_lat_lon" id is only formatted
+ * once per area, when a response is built.
+ */
+public final class AreaGrid {
+
+    /** Returned by {@link #parseAreaId} for ids that are not grid area ids. */
+    public static final long NO_CELL = Long.MIN_VALUE;
+
+    private static final double CELL_DEGREES = 0.01;
+
+    private AreaGrid() {
+    }
+
+    public static long cellKey(double latitude, double longitude) {
+        int latGrid = (int) (latitude / CELL_DEGREES);
+        int lonGrid = (int) (longitude / CELL_DEGREES);
+        return ((long) latGrid << 32) | (lonGrid & 0xffffffffL);
+    }
+
+    public static String areaId(long cellKey) {
+        int latGrid = (int) (cellKey >> 32);
+        int lonGrid = (int) cellKey;
+        return "AREA_" + latGrid + "_" + lonGrid;
+    }
+
+    /**
+     * Box that contains the cell, for a range pre-filter. It is deliberately
+     * generous (indices truncate toward zero, and edges round either way), so
+     * candidates must still be checked with {@link #cellKey}.
+     */
+    public static BoundingBox bounds(long cellKey) {
+        int latGrid = (int) (cellKey >> 32);
+        int lonGrid = (int) cellKey;
+        return new BoundingBox(
+                (lonGrid - 1) * CELL_DEGREES, (latGrid - 1) * CELL_DEGREES,
+                (lonGrid + 1) * CELL_DEGREES, (latGrid + 1) * CELL_DEGREES);
+    }
+
+    /**
+     * Inverse of {@link #areaId(long)}: the cell an "AREA_lat_lon" id names,
+     * or {@link #NO_CELL} for any other id (such as a reported clinic area).
+     */
+    public static long parseAreaId(String areaId) {
+        if (areaId == null || !areaId.startsWith("AREA_")) {
+            return NO_CELL;
+        }
+        int separator = areaId.indexOf('_', 5);
+        if (separator < 0) {
+            return NO_CELL;
+        }
+        try {
+            int latGrid = Integer.parseInt(areaId, 5, separator, 10);
+            int lonGrid = Integer.parseInt(areaId, separator + 1, areaId.length(), 10);
+            long cellKey = ((long) latGrid << 32) | (lonGrid & 0xffffffffL);
+            // Only canonical spellings name a cell; "AREA_+1_01" is just a string id
+            return areaId(cellKey).equals(areaId) ? cellKey : NO_CELL;
+        } catch (NumberFormatException e) {
+            return NO_CELL;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.healthmap.service;
+
+/**
+ * Per-area totals that correlation scoring works from: the environmental side
+ * from assessments in the area, the health side from its recent signals.
+ */
+public record AreaMetrics(
+        String areaId,
+        String areaName,
+        Double latitude,
+        Double longitude,
+        int assessmentCount,
+        long riskSum,
+        int criticalCount,
+        int debrisCount,
+        int waterCount,
+        int signalCount,
+        int elevatedCount,
+        boolean respiratoryElevated,
+        boolean gastrointestinalElevated,
+        boolean skinElevated
+) {
+
+    public double averageRisk() {
+        return assessmentCount == 0 ? 0.0 : (double) riskSum / assessmentCount;
+    }
+}
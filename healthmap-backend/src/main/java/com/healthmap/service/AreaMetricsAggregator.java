@@ -0,0 +1,214 @@
+package com.healthmap.service;
+
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.event.HealthSignalSnapshot;
+import com.healthmap.model.Assessment;
+import com.healthmap.model.HealthSignal;
+import com.healthmap.repository.HealthSignalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Computes per-area metrics from scratch in one pass over each table, for
+ * arbitrary signal windows (reports, backfills) that the incremental
+ * {@link AreaCorrelationStore} does not cover.
+ *
+ * Both cursors are folded with {@link ParallelFold}: each row touches only
+ * its own area's running totals, assessment areas are keyed by primitive
+ * {@link AreaGrid} cell ids, and per-chunk partials are merged without locks.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AreaMetricsAggregator {
+
+    private static final Comparator<HealthSignalSnapshot> RECENCY =
+            Comparator.comparing(HealthSignalSnapshot::signalDate).thenComparing(HealthSignalSnapshot::id);
+
+    private final AssessmentSnapshotLoader assessmentLoader;
+    private final HealthSignalRepository healthSignalRepository;
+
+    /**
+     * Metrics for every area with assessments or with signals dated within
+     * [from, to], inclusive.
+     */
+    @Transactional(readOnly = true)
+    public List<AreaMetrics> aggregate(LocalDate from, LocalDate to) {
+        long started = System.nanoTime();
+
+        ParallelFold<AssessmentSnapshot, LongObjectMap<AssessmentTotals>> assessmentFold =
+                new ParallelFold<>(LongObjectMap::new, AreaMetricsAggregator::addAssessment,
+                        AreaMetricsAggregator::mergeAssessments);
+        assessmentLoader.forEach(assessmentFold);
+        LongObjectMap<AssessmentTotals> assessmentAreas = assessmentFold.finish();
+
+        ParallelFold<HealthSignalSnapshot, Map<String, SignalTotals>> signalFold =
+                new ParallelFold<>(HashMap::new, AreaMetricsAggregator::addSignal,
+                        AreaMetricsAggregator::mergeSignals);
+        try (Stream<HealthSignalSnapshot> signals = healthSignalRepository.streamSnapshotsBetween(from, to)) {
+            signals.forEach(signalFold);
+        }
+        Map<String, SignalTotals> signalAreas = signalFold.finish();
+
+        List<AreaMetrics> metrics = join(assessmentAreas, signalAreas);
+        log.info("Aggregated {} areas from scratch in {} ms",
+                metrics.size(), (System.nanoTime() - started) / 1_000_000);
+        return metrics;
+    }
+
+    /**
+     * Pairs assessment cells with the signal areas that carry the same grid
+     * id; signal areas with free-form ids stand on their own.
+     */
+    private static List<AreaMetrics> join(LongObjectMap<AssessmentTotals> assessmentAreas,
+                                          Map<String, SignalTotals> signalAreas) {
+        LongObjectMap<SignalTotals> gridSignals = new LongObjectMap<>(signalAreas.size());
+        List<AreaMetrics> metrics = new ArrayList<>(assessmentAreas.size() + signalAreas.size());
+
+        for (Map.Entry<String, SignalTotals> entry : signalAreas.entrySet()) {
+            long cell = AreaGrid.parseAreaId(entry.getKey());
+            if (cell == AreaGrid.NO_CELL) {
+                metrics.add(toMetrics(entry.getKey(), null, entry.getValue()));
+            } else {
+                gridSignals.put(cell, entry.getValue());
+            }
+        }
+        assessmentAreas.forEach((cell, assessments) ->
+                metrics.add(toMetrics(AreaGrid.areaId(cell), assessments, gridSignals.remove(cell))));
+        gridSignals.forEach((cell, signals) ->
+                metrics.add(toMetrics(AreaGrid.areaId(cell), null, signals)));
+        return metrics;
+    }
+
+    private static AreaMetrics toMetrics(String areaId, AssessmentTotals assessments, SignalTotals signals) {
+        String areaName;
+        Double latitude;
+        Double longitude;
+        if (signals != null) {
+            areaName = signals.latest.areaName();
+            latitude = signals.latest.latitude();
+            longitude = signals.latest.longitude();
+        } else {
+            areaName = "Area " + areaId;
+            latitude = assessments.sumLatitude / assessments.count;
+            longitude = assessments.sumLongitude / assessments.count;
+        }
+
+        return new AreaMetrics(
+                areaId,
+                areaName,
+                latitude,
+                longitude,
+                assessments == null ? 0 : assessments.count,
+                assessments == null ? 0 : assessments.riskSum,
+                assessments == null ? 0 : assessments.criticalCount,
+                assessments == null ? 0 : assessments.debrisCount,
+                assessments == null ? 0 : assessments.waterCount,
+                signals == null ? 0 : signals.count,
+                signals == null ? 0 : signals.elevatedCount,
+                signals != null && signals.elevatedByType[HealthSignal.SignalType.RESPIRATORY.ordinal()] > 0,
+                signals != null && signals.elevatedByType[HealthSignal.SignalType.GASTROINTESTINAL.ordinal()] > 0,
+                signals != null && signals.elevatedByType[HealthSignal.SignalType.SKIN.ordinal()] > 0
+        );
+    }
+
+    private static void addAssessment(LongObjectMap<AssessmentTotals> areas, AssessmentSnapshot a) {
+        areas.computeIfAbsent(AreaGrid.cellKey(a.latitude(), a.longitude()), cell -> new AssessmentTotals())
+                .add(a);
+    }
+
+    private static LongObjectMap<AssessmentTotals> mergeAssessments(LongObjectMap<AssessmentTotals> left,
+                                                                    LongObjectMap<AssessmentTotals> right) {
+        LongObjectMap<AssessmentTotals> into = left.size() >= right.size() ? left : right;
+        LongObjectMap<AssessmentTotals> from = into == left ? right : left;
+        from.forEach((cell, totals) -> into.computeIfAbsent(cell, c -> new AssessmentTotals()).merge(totals));
+        return into;
+    }
+
+    private static void addSignal(Map<String, SignalTotals> areas, HealthSignalSnapshot s) {
+        areas.computeIfAbsent(s.areaId(), id -> new SignalTotals()).add(s);
+    }
+
+    private static Map<String, SignalTotals> mergeSignals(Map<String, SignalTotals> left,
+                                                          Map<String, SignalTotals> right) {
+        Map<String, SignalTotals> into = left.size() >= right.size() ? left : right;
+        Map<String, SignalTotals> from = into == left ? right : left;
+        from.forEach((areaId, totals) -> into.computeIfAbsent(areaId, id -> new SignalTotals()).merge(totals));
+        return into;
+    }
+
+    private static final class AssessmentTotals {
+        int count;
+        long riskSum;
+        int criticalCount;
+        int debrisCount;
+        int waterCount;
+        double sumLatitude;
+        double sumLongitude;
+
+        void add(AssessmentSnapshot a) {
+            count++;
+            riskSum += a.overallRisk();
+            sumLatitude += a.latitude();
+            sumLongitude += a.longitude();
+            if (a.priority() == Assessment.Priority.CRITICAL) {
+                criticalCount++;
+            }
+            if (a.siteType() == Assessment.SiteType.DEBRIS || a.siteType() == Assessment.SiteType.BOTH) {
+                debrisCount++;
+            }
+            if (a.siteType() == Assessment.SiteType.WATER || a.siteType() == Assessment.SiteType.BOTH) {
+                waterCount++;
+            }
+        }
+
+        void merge(AssessmentTotals other) {
+            count += other.count;
+            riskSum += other.riskSum;
+            criticalCount += other.criticalCount;
+            debrisCount += other.debrisCount;
+            waterCount += other.waterCount;
+            sumLatitude += other.sumLatitude;
+            sumLongitude += other.sumLongitude;
+        }
+    }
+
+    private static final class SignalTotals {
+        int count;
+        int elevatedCount;
+        final int[] elevatedByType = new int[HealthSignal.SignalType.values().length];
+        HealthSignalSnapshot latest;
+
+        void add(HealthSignalSnapshot s) {
+            count++;
+            if (s.signalLevel() == HealthSignal.SignalLevel.ELEVATED) {
+                elevatedCount++;
+                elevatedByType[s.signalType().ordinal()]++;
+            }
+            if (latest == null || RECENCY.compare(s, latest) > 0) {
+                latest = s;
+            }
+        }
+
+        void merge(SignalTotals other) {
+            count += other.count;
+            elevatedCount += other.elevatedCount;
+            for (int i = 0; i < elevatedByType.length; i++) {
+                elevatedByType[i] += other.elevatedByType[i];
+            }
+            if (latest == null || RECENCY.compare(other.latest, latest) > 0) {
+                latest = other.latest;
+            }
+        }
+    }
+}
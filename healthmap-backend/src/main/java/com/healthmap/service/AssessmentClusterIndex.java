@@ -0,0 +1,293 @@
+package com.healthmap.service;
+
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.model.Assessment.Priority;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Grid hierarchy of assessment clusters, one level per map zoom.
+ *
+ * Each zoom level divides every 256px Web Mercator tile into a 4x4 grid of
+ * cells, so a cell at zoom z has exactly four children at zoom z + 1. Cells
+ * keep a count, coordinate sums for the centroid, a priority histogram and the
+ * maximum overall risk. The finest level also keeps its member assessments so
+ * individual points can be returned above {@link #MAX_CLUSTER_ZOOM}.
+ *
+ * Built once at startup and kept current from committed
+ * {@link AssessmentChangedEvent}s, ignoring any older than the indexed version
+ * of their row ({@link RowVersions}); viewport queries never touch the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AssessmentClusterIndex implements SmartInitializingSingleton {
+
+    public static final int MAX_CLUSTER_ZOOM = 16;
+
+    private static final int CELL_BITS = 2; // 4x4 cells per tile
+    private static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    private final AssessmentSnapshotLoader snapshotLoader;
+    private final ChangeSequence changeSequence;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+    private final Map<Long, AssessmentSnapshot> byId = new HashMap<>();
+    private final RowVersions versions = new RowVersions();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            levels.clear();
+            byId.clear();
+            versions.clear();
+            for (int z = 0; z <= MAX_CLUSTER_ZOOM; z++) {
+                levels.add(new HashMap<>());
+            }
+            snapshotLoader.forEach(this::add);
+            log.info("Assessment cluster index rebuilt: {} leaf cells", levels.get(MAX_CLUSTER_ZOOM).size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ahead of VectorTileService, which evicts tiles built from this index
+    @TransactionalEventListener
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    public void onAssessmentChanged(AssessmentChangedEvent event) {
+        AssessmentSnapshot change = event.after() != null ? event.after() : event.before();
+        lock.writeLock().lock();
+        try {
+            AssessmentSnapshot held = byId.get(change.id());
+            if (!versions.isNewer(change.id(), held != null ? held.changeSeq() : null, change.changeSeq(),
+                    event.after() == null)) {
+                return;
+            }
+            // Remove what is indexed, which is not necessarily the event's before state
+            if (held != null) {
+                remove(held);
+            }
+            if (event.after() != null) {
+                add(event.after());
+            } else {
+                versions.recordDeletion(change.id(), change.changeSeq(), changeSequence.watermark());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters intersecting the box at the given zoom (clamped to the indexed range).
+     */
+    public List<Cluster> clusters(BoundingBox box, int zoom) {
+        int z = Math.max(0, Math.min(zoom, MAX_CLUSTER_ZOOM));
+        List<Cluster> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Cell cell : cellsIn(box, z)) {
+                result.add(new Cluster(
+                        cell.count,
+                        cell.sumLatitude / cell.count,
+                        cell.sumLongitude / cell.count,
+                        cell.maxOverallRisk,
+                        cell.priorityCounts.clone()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Individual assessments inside the box, read from the finest level.
+     */
+    public List<AssessmentSnapshot> points(BoundingBox box) {
+        List<AssessmentSnapshot> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Cell cell : cellsIn(box, MAX_CLUSTER_ZOOM)) {
+                for (AssessmentSnapshot member : cell.members.values()) {
+                    if (box.contains(member.latitude(), member.longitude())) {
+                        result.add(member);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private List<Cell> cellsIn(BoundingBox box, int z) {
+        Map<Long, Cell> level = levels.get(z);
+        long scale = 1L << (z + CELL_BITS);
+        int minX = cellX(box.minLon(), scale);
+        int maxX = cellX(box.maxLon(), scale);
+        int minY = cellY(box.maxLat(), scale); // Mercator y grows southwards
+        int maxY = cellY(box.minLat(), scale);
+
+        List<Cell> cells = new ArrayList<>();
+        long rangeSize = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        if (rangeSize <= level.size()) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    Cell cell = level.get(key(x, y));
+                    if (cell != null) {
+                        cells.add(cell);
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<Long, Cell> entry : level.entrySet()) {
+                int x = (int) (entry.getKey() >>> 32);
+                int y = (int) (long) entry.getKey();
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    cells.add(entry.getValue());
+                }
+            }
+        }
+        return cells;
+    }
+
+    private void add(AssessmentSnapshot a) {
+        AssessmentSnapshot indexed = byId.get(a.id());
+        if (indexed != null) {
+            remove(indexed);
+        }
+        byId.put(a.id(), a);
+
+        long scale = 1L << (MAX_CLUSTER_ZOOM + CELL_BITS);
+        int x = cellX(a.longitude(), scale);
+        int y = cellY(a.latitude(), scale);
+        for (int z = MAX_CLUSTER_ZOOM; z >= 0; z--) {
+            Cell cell = levels.get(z).computeIfAbsent(key(x, y), k -> new Cell());
+            cell.count++;
+            cell.sumLatitude += a.latitude();
+            cell.sumLongitude += a.longitude();
+            cell.priorityCounts[a.priority().ordinal()]++;
+            cell.maxOverallRisk = Math.max(cell.maxOverallRisk, a.overallRisk());
+            if (z == MAX_CLUSTER_ZOOM) {
+                if (cell.members == null) {
+                    cell.members = new HashMap<>(2);
+                }
+                cell.members.put(a.id(), a);
+            }
+            x >>= 1;
+            y >>= 1;
+        }
+    }
+
+    private void remove(AssessmentSnapshot a) {
+        Cell leaf = levels.get(MAX_CLUSTER_ZOOM).get(leafKey(a));
+        if (leaf == null) {
+            return;
+        }
+        // Use the indexed copy: its coordinates locate the cells it was added to
+        AssessmentSnapshot indexed = leaf.members.remove(a.id());
+        if (indexed == null) {
+            return;
+        }
+        byId.remove(a.id());
+
+        long scale = 1L << (MAX_CLUSTER_ZOOM + CELL_BITS);
+        int x = cellX(indexed.longitude(), scale);
+        int y = cellY(indexed.latitude(), scale);
+        for (int z = MAX_CLUSTER_ZOOM; z >= 0; z--) {
+            Map<Long, Cell> level = levels.get(z);
+            long key = key(x, y);
+            Cell cell = level.get(key);
+            cell.count--;
+            if (cell.count == 0) {
+                level.remove(key);
+            } else {
+                cell.sumLatitude -= indexed.latitude();
+                cell.sumLongitude -= indexed.longitude();
+                cell.priorityCounts[indexed.priority().ordinal()]--;
+                if (indexed.overallRisk() >= cell.maxOverallRisk) {
+                    cell.maxOverallRisk = recomputeMax(cell, z, x, y);
+                }
+            }
+            x >>= 1;
+            y >>= 1;
+        }
+    }
+
+    private int recomputeMax(Cell cell, int z, int x, int y) {
+        int max = 0;
+        if (z == MAX_CLUSTER_ZOOM) {
+            for (AssessmentSnapshot member : cell.members.values()) {
+                max = Math.max(max, member.overallRisk());
+            }
+            return max;
+        }
+        Map<Long, Cell> children = levels.get(z + 1);
+        for (int dx = 0; dx <= 1; dx++) {
+            for (int dy = 0; dy <= 1; dy++) {
+                Cell child = children.get(key(2 * x + dx, 2 * y + dy));
+                if (child != null) {
+                    max = Math.max(max, child.maxOverallRisk);
+                }
+            }
+        }
+        return max;
+    }
+
+    private long leafKey(AssessmentSnapshot a) {
+        long scale = 1L << (MAX_CLUSTER_ZOOM + CELL_BITS);
+        return key(cellX(a.longitude(), scale), cellY(a.latitude(), scale));
+    }
+
+    private static int cellX(double longitude, long scale) {
+        double x = (longitude + 180.0) / 360.0;
+        return clamp((long) Math.floor(x * scale), scale);
+    }
+
+    private static int cellY(double latitude, long scale) {
+        double lat = Math.toRadians(Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, latitude)));
+        double y = (1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0;
+        return clamp((long) Math.floor(y * scale), scale);
+    }
+
+    private static int clamp(long cell, long scale) {
+        return (int) Math.max(0, Math.min(scale - 1, cell));
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static final class Cell {
+        int count;
+        double sumLatitude;
+        double sumLongitude;
+        int maxOverallRisk;
+        final int[] priorityCounts = new int[Priority.values().length];
+        Map<Long, AssessmentSnapshot> members; // finest level only
+    }
+
+    /**
+     * Aggregated view of one grid cell; priorityCounts is indexed by {@link Priority#ordinal()}.
+     */
+    public record Cluster(int count, double latitude, double longitude, int maxOverallRisk, int[] priorityCounts) {
+    }
+}
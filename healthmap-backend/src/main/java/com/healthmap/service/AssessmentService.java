@@ -2,19 +2,35 @@ package com.healthmap.service;
 
 import com.healthmap.dto.AssessmentRequest;
 import com.healthmap.dto.AssessmentResponse;
-import com.healthmap.dto.GeoJsonResponse;
+import com.healthmap.dto.BatchResponse;
+import com.healthmap.dto.ChangesResponse;
+import com.healthmap.dto.NearbyAssessmentResponse;
+import com.healthmap.dto.PageResponse;
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
 import com.healthmap.model.Assessment;
 import com.healthmap.model.Assessment.Priority;
+import com.healthmap.model.Tombstone;
 import com.healthmap.repository.AssessmentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,10 +38,86 @@ public class AssessmentService {
 
     private final AssessmentRepository assessmentRepository;
     private final RiskCalculator riskCalculator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final AssessmentClusterIndex clusterIndex;
+    private final AssessmentSpatialIndex spatialIndex;
+    private final Validator validator;
+    private final ChangeFeed changeFeed;
+
+    private static final double MAX_RADIUS_KM = 200.0;
+    private static final int MAX_NEAREST = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
 
     @Transactional
     public AssessmentResponse createAssessment(AssessmentRequest request) {
-        Assessment assessment = Assessment.builder()
+        Assessment assessment = toEntity(request);
+        riskCalculator.calculateRisks(assessment);
+        Assessment saved = assessmentRepository.save(assessment);
+        eventPublisher.publishEvent(AssessmentChangedEvent.created(AssessmentSnapshot.of(saved)));
+        return toResponse(saved);
+    }
+
+    /**
+     * Scores and inserts a batch in one transaction. Items failing validation
+     * are reported by index and skipped; the rest are written with JDBC
+     * batching, which the pooled id sequence makes possible.
+     */
+    @Transactional
+    public BatchResponse<AssessmentResponse> createAssessments(List<AssessmentRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+
+        List<Assessment> valid = new ArrayList<>(requests.size());
+        List<BatchResponse.ItemError> errors = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AssessmentRequest request = requests.get(i);
+            List<String> messages = request == null
+                    ? List.of("item is null")
+                    : validator.validate(request).stream()
+                            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                            .sorted()
+                            .toList();
+            if (!messages.isEmpty()) {
+                errors.add(new BatchResponse.ItemError(i, messages));
+                continue;
+            }
+            Assessment assessment = toEntity(request);
+            riskCalculator.calculateRisks(assessment);
+            valid.add(assessment);
+        }
+
+        List<AssessmentResponse> items = new ArrayList<>(valid.size());
+        for (Assessment assessment : insertScored(valid)) {
+            items.add(toResponse(assessment));
+        }
+
+        return BatchResponse.<AssessmentResponse>builder()
+                .received(requests.size())
+                .accepted(items.size())
+                .rejected(errors.size())
+                .items(items)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Inserts assessments that have already been scored; the caller owns the
+     * transaction.
+     */
+    List<Assessment> insertScored(List<Assessment> scored) {
+        List<Assessment> saved = assessmentRepository.saveAll(scored);
+        for (Assessment assessment : saved) {
+            eventPublisher.publishEvent(AssessmentChangedEvent.created(AssessmentSnapshot.of(assessment)));
+        }
+        return saved;
+    }
+
+    Assessment toEntity(AssessmentRequest request) {
+        return Assessment.builder()
                 .latitude(request.getLatitude())
                 .longitude(request.getLongitude())
                 .imagePath(request.getImagePath())
@@ -39,16 +131,31 @@ public class AssessmentService {
                 .notes(request.getNotes())
                 .createdBy(request.getCreatedBy())
                 .build();
+    }
 
-        riskCalculator.calculateRisks(assessment);
-        Assessment saved = assessmentRepository.save(assessment);
-        return toResponse(saved);
+    /**
+     * Newest first, keyed on (createdAt, id).
+     */
+    public PageResponse<AssessmentResponse> getAllAssessments(String cursor, int limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Assessment> rows;
+        if (cursor == null) {
+            rows = assessmentRepository.findPageByCreatedAt(fetch);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = assessmentRepository.findPageByCreatedAtAfter(position.dateTimeKey(), position.id(), fetch);
+        }
+        return PageResponse.of(rows, pageSize, this::toResponse,
+                a -> PageCursor.encode(a.getCreatedAt(), a.getId()));
     }
 
-    public List<AssessmentResponse> getAllAssessments() {
-        return assessmentRepository.findAll().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    /**
+     * Assessments written and deleted since a sync token, in change order.
+     */
+    public ChangesResponse<AssessmentResponse> getChanges(String since, int limit) {
+        return changeFeed.changes(since, limit, Tombstone.EntityType.ASSESSMENT,
+                assessmentRepository::findChangedAfter, Assessment::getId, this::toResponse);
     }
 
     public AssessmentResponse getAssessment(Long id) {
@@ -59,8 +166,9 @@ public class AssessmentService {
 
     @Transactional
     public AssessmentResponse updateAssessment(Long id, AssessmentRequest request) {
-        Assessment assessment = assessmentRepository.findById(id)
+        Assessment assessment = assessmentRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Assessment not found with id: " + id));
+        AssessmentSnapshot before = AssessmentSnapshot.of(assessment);
 
         if (request.getLatitude() != null) assessment.setLatitude(request.getLatitude());
         if (request.getLongitude() != null) assessment.setLongitude(request.getLongitude());
@@ -75,22 +183,36 @@ public class AssessmentService {
         if (request.getNotes() != null) assessment.setNotes(request.getNotes());
 
         riskCalculator.calculateRisks(assessment);
-        Assessment saved = assessmentRepository.save(assessment);
+        // Flush so the snapshot carries the change sequence number stamped on update
+        Assessment saved = assessmentRepository.saveAndFlush(assessment);
+        eventPublisher.publishEvent(AssessmentChangedEvent.updated(before, AssessmentSnapshot.of(saved)));
         return toResponse(saved);
     }
 
     @Transactional
     public void deleteAssessment(Long id) {
-        if (!assessmentRepository.existsById(id)) {
-            throw new RuntimeException("Assessment not found with id: " + id);
-        }
-        assessmentRepository.deleteById(id);
+        Assessment assessment = assessmentRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Assessment not found with id: " + id));
+        assessmentRepository.delete(assessment);
+        changeFeed.recordDeletion(Tombstone.EntityType.ASSESSMENT, id);
+        eventPublisher.publishEvent(AssessmentChangedEvent.deleted(AssessmentSnapshot.of(assessment)));
     }
 
-    public List<AssessmentResponse> getPrioritizedAssessments() {
-        return assessmentRepository.findAllByOrderByOverallRiskDesc().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    /**
+     * Highest overall risk first, keyed on (overallRisk, id).
+     */
+    public PageResponse<AssessmentResponse> getPrioritizedAssessments(String cursor, int limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Assessment> rows;
+        if (cursor == null) {
+            rows = assessmentRepository.findPageByOverallRisk(fetch);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = assessmentRepository.findPageByOverallRiskAfter(position.intKey(), position.id(), fetch);
+        }
+        return PageResponse.of(rows, pageSize, this::toResponse,
+                a -> PageCursor.encode(a.getOverallRisk(), a.getId()));
     }
 
     public List<AssessmentResponse> getRecentAssessments() {
@@ -99,30 +221,170 @@ public class AssessmentService {
                 .collect(Collectors.toList());
     }
 
-    public GeoJsonResponse getGeoJson() {
-        List<Assessment> assessments = assessmentRepository.findAll();
-        List<GeoJsonResponse.Feature> features = new ArrayList<>();
+    /**
+     * Assessments within radiusKm of a point, nearest first, from the spatial index.
+     */
+    public List<NearbyAssessmentResponse> findNear(double latitude, double longitude, double radiusKm, int limit) {
+        validateCoordinates(latitude, longitude);
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "radiusKm must be greater than 0 and at most " + MAX_RADIUS_KM);
+        }
+        return spatialIndex.withinRadius(latitude, longitude, radiusKm, PageCursor.clampLimit(limit)).stream()
+                .map(this::toNearbyResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The k assessments closest to a point, nearest first, from the spatial index.
+     */
+    public List<NearbyAssessmentResponse> findNearest(double latitude, double longitude, int k) {
+        validateCoordinates(latitude, longitude);
+        if (k <= 0 || k > MAX_NEAREST) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "k must be between 1 and " + MAX_NEAREST);
+        }
+        return spatialIndex.nearest(latitude, longitude, k).stream()
+                .map(this::toNearbyResponse)
+                .collect(Collectors.toList());
+    }
+
+    private void validateCoordinates(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat/lon out of range");
+        }
+    }
+
+    private NearbyAssessmentResponse toNearbyResponse(AssessmentSpatialIndex.Neighbor neighbor) {
+        AssessmentSnapshot a = neighbor.assessment();
+        return NearbyAssessmentResponse.builder()
+                .id(a.id())
+                .latitude(a.latitude())
+                .longitude(a.longitude())
+                .siteType(a.siteType().name())
+                .priority(a.priority().name())
+                .overallRisk(a.overallRisk())
+                .asbestosRisk(a.asbestosRisk())
+                .waterRisk(a.waterRisk())
+                .materialType(a.materialType())
+                .imagePath(a.imagePath())
+                .distanceKm(Math.round(neighbor.distanceKm() * 1000.0) / 1000.0)
+                .build();
+    }
 
-        for (Assessment a : assessments) {
-            Map<String, Object> properties = new HashMap<>();
-            properties.put("id", a.getId());
-            properties.put("siteType", a.getSiteType().name());
-            properties.put("overallRisk", a.getOverallRisk());
-            properties.put("asbestosRisk", a.getAsbestosRisk());
-            properties.put("waterRisk", a.getWaterRisk());
-            properties.put("priority", a.getPriority().name());
-            properties.put("materialType", a.getMaterialType());
-            properties.put("imagePath", a.getImagePath());
+    /**
+     * Writes all assessments as a GeoJSON FeatureCollection straight to the
+     * output stream, one row at a time, without building the collection in memory.
+     */
+    @Transactional(readOnly = true)
+    public void writeGeoJson(OutputStream out) throws IOException {
+        try (JsonGenerator json = createGenerator(out);
+             Stream<Assessment> assessments = assessmentRepository.streamAll()) {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
 
-            GeoJsonResponse.Geometry geometry = new GeoJsonResponse.Geometry(
-                    "Point",
-                    new double[]{a.getLongitude(), a.getLatitude()}
-            );
+            Iterator<Assessment> rows = assessments.iterator();
+            while (rows.hasNext()) {
+                Assessment a = rows.next();
+                writePointFeature(json, a.getId(), a.getSiteType().name(), a.getOverallRisk(),
+                        a.getAsbestosRisk(), a.getWaterRisk(), a.getPriority().name(),
+                        a.getMaterialType(), a.getImagePath(), a.getLongitude(), a.getLatitude());
+                entityManager.detach(a);
+            }
 
-            features.add(new GeoJsonResponse.Feature("Feature", properties, geometry));
+            json.writeEndArray();
+            json.writeEndObject();
         }
+    }
+
+    /**
+     * Writes the assessments visible in a map viewport from the in-memory
+     * cluster index. Up to {@link AssessmentClusterIndex#MAX_CLUSTER_ZOOM} the
+     * features are clusters; above it they are individual points.
+     */
+    public void writeViewportGeoJson(OutputStream out, BoundingBox box, int zoom) throws IOException {
+        try (JsonGenerator json = createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
+
+            if (zoom > AssessmentClusterIndex.MAX_CLUSTER_ZOOM) {
+                for (AssessmentSnapshot a : clusterIndex.points(box)) {
+                    writePointFeature(json, a.id(), a.siteType().name(), a.overallRisk(),
+                            a.asbestosRisk(), a.waterRisk(), a.priority().name(),
+                            a.materialType(), a.imagePath(), a.longitude(), a.latitude());
+                }
+            } else {
+                for (AssessmentClusterIndex.Cluster cluster : clusterIndex.clusters(box, zoom)) {
+                    writeClusterFeature(json, cluster);
+                }
+            }
+
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * A generator that leaves the document unfinished when closed after a
+     * failure, rather than closing the open array and object, so a client
+     * never takes a cut-off collection for a complete one.
+     */
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+    }
+
+    private void writePointFeature(JsonGenerator json, Long id, String siteType, int overallRisk,
+                                   int asbestosRisk, int waterRisk, String priority,
+                                   String materialType, String imagePath,
+                                   double longitude, double latitude) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", "Feature");
+
+        json.writeObjectFieldStart("properties");
+        json.writeNumberField("id", id);
+        json.writeStringField("siteType", siteType);
+        json.writeNumberField("overallRisk", overallRisk);
+        json.writeNumberField("asbestosRisk", asbestosRisk);
+        json.writeNumberField("waterRisk", waterRisk);
+        json.writeStringField("priority", priority);
+        json.writeStringField("materialType", materialType);
+        json.writeStringField("imagePath", imagePath);
+        json.writeEndObject();
+
+        writePointGeometry(json, longitude, latitude);
+        json.writeEndObject();
+    }
+
+    private void writeClusterFeature(JsonGenerator json, AssessmentClusterIndex.Cluster cluster) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", "Feature");
+
+        json.writeObjectFieldStart("properties");
+        json.writeBooleanField("cluster", true);
+        json.writeNumberField("count", cluster.count());
+        json.writeNumberField("maxOverallRisk", cluster.maxOverallRisk());
+        json.writeObjectFieldStart("priorities");
+        for (Priority priority : Priority.values()) {
+            json.writeNumberField(priority.name(), cluster.priorityCounts()[priority.ordinal()]);
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+
+        writePointGeometry(json, cluster.longitude(), cluster.latitude());
+        json.writeEndObject();
+    }
 
-        return new GeoJsonResponse("FeatureCollection", features);
+    private void writePointGeometry(JsonGenerator json, double longitude, double latitude) throws IOException {
+        json.writeObjectFieldStart("geometry");
+        json.writeStringField("type", "Point");
+        json.writeArrayFieldStart("coordinates");
+        json.writeNumber(longitude);
+        json.writeNumber(latitude);
+        json.writeEndArray();
+        json.writeEndObject();
     }
 
     private AssessmentResponse toResponse(Assessment assessment) {
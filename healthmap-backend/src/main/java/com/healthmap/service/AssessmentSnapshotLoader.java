@@ -0,0 +1,34 @@
+package com.healthmap.service;
+
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.repository.AssessmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Feeds every stored assessment, as a snapshot, to the in-memory indexes
+ * when they rebuild. Rows are streamed as snapshots straight from the query,
+ * so a rebuild never fills the persistence context.
+ */
+@Component
+@RequiredArgsConstructor
+public class AssessmentSnapshotLoader {
+
+    private final AssessmentRepository assessmentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    public void forEach(Consumer<AssessmentSnapshot> consumer) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<AssessmentSnapshot> assessments = assessmentRepository.streamSnapshots()) {
+                assessments.forEach(consumer);
+            }
+        });
+    }
+}
@@ -0,0 +1,284 @@
+package com.healthmap.service;
+
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed-grid spatial index over assessment coordinates for radius and
+ * k-nearest lookups.
+ *
+ * Assessments are bucketed into {@link #CELL_DEGREES} latitude/longitude
+ * cells (about 5.5km north-south). Radius queries only visit the cells
+ * overlapping the query's bounding boxes (two when the circle crosses the
+ * antimeridian) and then filter by Haversine distance; k-nearest queries scan
+ * rings of cells outwards from the query point, wrapping around in longitude,
+ * until no unvisited cell can hold a closer assessment.
+ *
+ * Built at startup and kept current from committed {@link AssessmentChangedEvent}s;
+ * a change older than the indexed version of its row is ignored ({@link RowVersions}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AssessmentSpatialIndex implements SmartInitializingSingleton {
+
+    static final double CELL_DEGREES = 0.05;
+    private static final int COLUMNS = (int) Math.round(360.0 / CELL_DEGREES);
+
+    private final AssessmentSnapshotLoader snapshotLoader;
+    private final ChangeSequence changeSequence;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RowVersions versions = new RowVersions();
+    private final Map<Long, List<AssessmentSnapshot>> cells = new HashMap<>();
+    private final Map<Long, AssessmentSnapshot> byId = new HashMap<>();
+
+    // Extent of occupied cells; only ever grows, which keeps k-nearest termination safe
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            byId.clear();
+            versions.clear();
+            minCellX = Integer.MAX_VALUE;
+            maxCellX = Integer.MIN_VALUE;
+            minCellY = Integer.MAX_VALUE;
+            maxCellY = Integer.MIN_VALUE;
+            snapshotLoader.forEach(this::add);
+            log.info("Assessment spatial index rebuilt: {} assessments in {} cells", byId.size(), cells.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAssessmentChanged(AssessmentChangedEvent event) {
+        AssessmentSnapshot change = event.after() != null ? event.after() : event.before();
+        lock.writeLock().lock();
+        try {
+            AssessmentSnapshot held = byId.get(change.id());
+            if (!versions.isNewer(change.id(), held != null ? held.changeSeq() : null, change.changeSeq(),
+                    event.after() == null)) {
+                return;
+            }
+            remove(change.id());
+            if (event.after() != null) {
+                add(event.after());
+            } else {
+                versions.recordDeletion(change.id(), change.changeSeq(), changeSequence.watermark());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Assessments within radiusKm of the point, nearest first, at most limit results.
+     */
+    public List<Neighbor> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        List<BoundingBox> boxes = GeoDistance.boundingBoxes(latitude, longitude, radiusKm);
+        long rangeSize = 0;
+        for (BoundingBox box : boxes) {
+            rangeSize += (long) (cellX(box.maxLon()) - cellX(box.minLon()) + 1)
+                    * (cellY(box.maxLat()) - cellY(box.minLat()) + 1);
+        }
+
+        List<Neighbor> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (rangeSize <= cells.size()) {
+                // The boxes do not overlap, so no cell is visited twice
+                for (BoundingBox box : boxes) {
+                    for (int x = cellX(box.minLon()); x <= cellX(box.maxLon()); x++) {
+                        for (int y = cellY(box.minLat()); y <= cellY(box.maxLat()); y++) {
+                            collectWithin(cells.get(key(x, y)), boxes, latitude, longitude, radiusKm, matches);
+                        }
+                    }
+                }
+            } else {
+                for (List<AssessmentSnapshot> bucket : cells.values()) {
+                    collectWithin(bucket, boxes, latitude, longitude, radiusKm, matches);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * The k assessments closest to the point, nearest first.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k) {
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+
+        lock.readLock().lock();
+        try {
+            if (byId.isEmpty()) {
+                return List.of();
+            }
+            int centerX = cellX(longitude);
+            int centerY = cellY(latitude);
+            int lastRing = Math.max(
+                    Math.max(Math.abs(centerX - minCellX), Math.abs(centerX - maxCellX)),
+                    Math.max(Math.abs(centerY - minCellY), Math.abs(centerY - maxCellY)));
+
+            for (int ring = 0; ring <= lastRing; ring++) {
+                long ringArea = (long) (2 * ring + 1) * (2 * ring + 1);
+                // Past half the globe a wrapped ring would meet itself
+                if (ringArea > cells.size() || 2 * ring + 1 > COLUMNS) {
+                    // The ring now covers more cells than are occupied; finish with a scan of the occupied ones
+                    best.clear();
+                    for (List<AssessmentSnapshot> bucket : cells.values()) {
+                        offerAll(bucket, latitude, longitude, k, best);
+                    }
+                    break;
+                }
+                scanRing(centerX, centerY, ring, latitude, longitude, k, best);
+                if (best.size() == k && best.peek().distanceKm() <= minDistanceBeyondRing(latitude, ring)) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    private void scanRing(int centerX, int centerY, int ring, double latitude, double longitude,
+                          int k, PriorityQueue<Neighbor> best) {
+        if (ring == 0) {
+            offerAll(cells.get(key(centerX, centerY)), latitude, longitude, k, best);
+            return;
+        }
+        for (int dx = -ring; dx <= ring; dx++) {
+            offerAll(cells.get(key(wrapX(centerX + dx), centerY - ring)), latitude, longitude, k, best);
+            offerAll(cells.get(key(wrapX(centerX + dx), centerY + ring)), latitude, longitude, k, best);
+        }
+        for (int dy = -ring + 1; dy <= ring - 1; dy++) {
+            offerAll(cells.get(key(wrapX(centerX - ring), centerY + dy)), latitude, longitude, k, best);
+            offerAll(cells.get(key(wrapX(centerX + ring), centerY + dy)), latitude, longitude, k, best);
+        }
+    }
+
+    /**
+     * Lower bound on the distance from the query point to any cell outside the
+     * rings scanned so far: at least {@code ring} whole cells away in latitude
+     * or longitude, with cell width taken at the widest latitude reached.
+     */
+    private double minDistanceBeyondRing(double latitude, int ring) {
+        double heightKm = CELL_DEGREES * GeoDistance.KM_PER_DEGREE_LAT;
+        double farthestLat = Math.min(89.9, Math.abs(latitude) + (ring + 1) * CELL_DEGREES);
+        double widthKm = heightKm * Math.cos(Math.toRadians(farthestLat));
+        // Great-circle paths are slightly shorter than grid-aligned ones; stay conservative
+        return 0.99 * ring * Math.min(heightKm, widthKm);
+    }
+
+    private void offerAll(List<AssessmentSnapshot> bucket, double latitude, double longitude,
+                          int k, PriorityQueue<Neighbor> best) {
+        if (bucket == null) {
+            return;
+        }
+        for (AssessmentSnapshot a : bucket) {
+            double distance = GeoDistance.haversineKm(latitude, longitude, a.latitude(), a.longitude());
+            if (best.size() < k) {
+                best.add(new Neighbor(a, distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Neighbor(a, distance));
+            }
+        }
+    }
+
+    private void collectWithin(List<AssessmentSnapshot> bucket, List<BoundingBox> boxes, double latitude,
+                               double longitude, double radiusKm, List<Neighbor> matches) {
+        if (bucket == null) {
+            return;
+        }
+        for (AssessmentSnapshot a : bucket) {
+            if (boxes.stream().noneMatch(box -> box.contains(a.latitude(), a.longitude()))) {
+                continue;
+            }
+            double distance = GeoDistance.haversineKm(latitude, longitude, a.latitude(), a.longitude());
+            if (distance <= radiusKm) {
+                matches.add(new Neighbor(a, distance));
+            }
+        }
+    }
+
+    private void add(AssessmentSnapshot a) {
+        remove(a.id());
+        int x = cellX(a.longitude());
+        int y = cellY(a.latitude());
+        cells.computeIfAbsent(key(x, y), k -> new ArrayList<>(4)).add(a);
+        byId.put(a.id(), a);
+        minCellX = Math.min(minCellX, x);
+        maxCellX = Math.max(maxCellX, x);
+        minCellY = Math.min(minCellY, y);
+        maxCellY = Math.max(maxCellY, y);
+    }
+
+    private void remove(Long id) {
+        AssessmentSnapshot indexed = byId.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        long key = key(cellX(indexed.longitude()), cellY(indexed.latitude()));
+        List<AssessmentSnapshot> bucket = cells.get(key);
+        bucket.removeIf(a -> a.id().equals(id));
+        if (bucket.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    private static int cellX(double longitude) {
+        // Clamped, so longitude 180 (or a stray out-of-range value) lands in a column the rings wrap onto
+        int x = (int) Math.floor((longitude + 180.0) / CELL_DEGREES);
+        return Math.max(0, Math.min(COLUMNS - 1, x));
+    }
+
+    private static int wrapX(int x) {
+        return Math.floorMod(x, COLUMNS);
+    }
+
+    private static int cellY(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / CELL_DEGREES);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    public record Neighbor(AssessmentSnapshot assessment, double distanceKm) {
+    }
+}
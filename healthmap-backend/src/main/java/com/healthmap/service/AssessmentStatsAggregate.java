@@ -0,0 +1,134 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.StatsResponse;
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.model.Assessment.Priority;
+import com.healthmap.model.Assessment.SiteType;
+import com.healthmap.repository.AssessmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running totals over all assessments so that /api/stats can be answered
+ * without reading the assessments table.
+ *
+ * The totals are rebuilt with a single GROUP BY query once all beans are
+ * created (after data.sql has run, before the web server accepts requests)
+ * and are then adjusted from committed {@link AssessmentChangedEvent}s.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AssessmentStatsAggregate implements SmartInitializingSingleton {
+
+    private final AssessmentRepository assessmentRepository;
+
+    private final long[] priorityCounts = new long[Priority.values().length];
+    private final long[] siteTypeCounts = new long[SiteType.values().length];
+    private long total;
+    private long asbestosRiskSum;
+    private long waterRiskSum;
+    private long overallRiskSum;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Recomputes all totals from the database.
+     */
+    public synchronized void rebuild() {
+        clear();
+        List<Object[]> rows = assessmentRepository.summarizeByPriorityAndSiteType();
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            priorityCounts[((Priority) row[0]).ordinal()] += count;
+            siteTypeCounts[((SiteType) row[1]).ordinal()] += count;
+            total += count;
+            asbestosRiskSum += ((Number) row[3]).longValue();
+            waterRiskSum += ((Number) row[4]).longValue();
+            overallRiskSum += ((Number) row[5]).longValue();
+        }
+        log.info("Assessment stats aggregate rebuilt: {} assessments", total);
+    }
+
+    // Totals need no version check: each event's before is the previous event's after,
+    // so the deltas of changes to one row sum to the same result in any delivery order
+    @TransactionalEventListener
+    public synchronized void onAssessmentChanged(AssessmentChangedEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(event.after(), 1);
+        }
+    }
+
+    public synchronized StatsResponse getStats() {
+        long critical = priorityCounts[Priority.CRITICAL.ordinal()];
+        long high = priorityCounts[Priority.HIGH.ordinal()];
+        long medium = priorityCounts[Priority.MEDIUM.ordinal()];
+        long low = priorityCounts[Priority.LOW.ordinal()];
+
+        Map<String, Long> siteTypeDistribution = new HashMap<>();
+        for (SiteType siteType : SiteType.values()) {
+            siteTypeDistribution.put(siteType.name(), siteTypeCounts[siteType.ordinal()]);
+        }
+
+        return StatsResponse.builder()
+                .totalAssessments(total)
+                .criticalCount(critical)
+                .highCount(high)
+                .mediumCount(medium)
+                .lowCount(low)
+                .averageAsbestosRisk(roundedAverage(asbestosRiskSum))
+                .averageWaterRisk(roundedAverage(waterRiskSum))
+                .averageOverallRisk(roundedAverage(overallRiskSum))
+                .riskDistribution(getRiskDistribution())
+                .siteTypeDistribution(siteTypeDistribution)
+                .build();
+    }
+
+    public synchronized Map<String, Long> getRiskDistribution() {
+        Map<String, Long> distribution = new HashMap<>();
+        for (Priority priority : Priority.values()) {
+            distribution.put(priority.name(), priorityCounts[priority.ordinal()]);
+        }
+        return distribution;
+    }
+
+    private void apply(AssessmentSnapshot snapshot, int sign) {
+        priorityCounts[snapshot.priority().ordinal()] += sign;
+        siteTypeCounts[snapshot.siteType().ordinal()] += sign;
+        total += sign;
+        asbestosRiskSum += (long) sign * snapshot.asbestosRisk();
+        waterRiskSum += (long) sign * snapshot.waterRisk();
+        overallRiskSum += (long) sign * snapshot.overallRisk();
+    }
+
+    private void clear() {
+        Arrays.fill(priorityCounts, 0);
+        Arrays.fill(siteTypeCounts, 0);
+        total = 0;
+        asbestosRiskSum = 0;
+        waterRiskSum = 0;
+        overallRiskSum = 0;
+    }
+
+    private double roundedAverage(long sum) {
+        if (total == 0) {
+            return 0.0;
+        }
+        return Math.round((double) sum / total * 10.0) / 10.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.healthmap.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Geographic bounding box in degrees, parsed from the conventional
+ * {@code minLon,minLat,maxLon,maxLat} query parameter.
+ */
+public record BoundingBox(double minLon, double minLat, double maxLon, double maxLat) {
+
+    public static BoundingBox parse(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        try {
+            BoundingBox box = new BoundingBox(
+                    Double.parseDouble(parts[0].trim()),
+                    Double.parseDouble(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim()),
+                    Double.parseDouble(parts[3].trim()));
+            if (box.minLon > box.maxLon || box.minLat > box.maxLat) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "bbox minimums must not exceed maximums");
+            }
+            return box;
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid bbox: " + bbox);
+        }
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLat && latitude <= maxLat
+                && longitude >= minLon && longitude <= maxLon;
+    }
+}
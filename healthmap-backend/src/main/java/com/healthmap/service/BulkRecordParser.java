@@ -0,0 +1,215 @@
+package com.healthmap.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses bulk uploads (NDJSON or CSV with a header row) into request DTOs one
+ * record at a time, so memory use does not depend on the size of the input.
+ *
+ * CSV headers are matched to the DTO's field names ignoring case and
+ * underscores ("signal_date" and "signalDate" both work); blank cells are
+ * treated as absent. Records that cannot be converted are rejected
+ * individually and parsing continues.
+ *
+ * Lines are capped at {@code app.ingest.max-line-chars} and CSV fields at
+ * {@code app.ingest.max-field-chars}, so one bad row cannot make the parser
+ * buffer the rest of the upload. An NDJSON line over the cap is rejected on
+ * its own; in CSV an overlong record cannot be told apart from a quote left
+ * open, so it ends the parse with a {@link CsvReader.MalformedCsvException}.
+ */
+@Component
+public class BulkRecordParser {
+
+    private final ObjectMapper objectMapper;
+    private final int maxLineLength;
+    private final int maxFieldLength;
+
+    public BulkRecordParser(ObjectMapper objectMapper,
+                            @Value("${app.ingest.max-line-chars:65536}") int maxLineLength,
+                            @Value("${app.ingest.max-field-chars:8192}") int maxFieldLength) {
+        this.objectMapper = objectMapper;
+        this.maxLineLength = maxLineLength;
+        this.maxFieldLength = Math.min(maxFieldLength, maxLineLength);
+    }
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static final MediaType NDJSON_TYPE = MediaType.parseMediaType("application/x-ndjson");
+        public static final MediaType CSV_TYPE = MediaType.parseMediaType("text/csv");
+        private static final MediaType JSONL_TYPE = MediaType.parseMediaType("application/jsonl");
+
+        /**
+         * Format for a Content-Type, or null if it is neither NDJSON nor CSV.
+         */
+        public static Format fromContentType(String contentType) {
+            if (contentType == null) {
+                return null;
+            }
+            MediaType type = MediaType.parseMediaType(contentType);
+            if (NDJSON_TYPE.includes(type) || JSONL_TYPE.includes(type)) {
+                return NDJSON;
+            }
+            if (CSV_TYPE.includes(type)) {
+                return CSV;
+            }
+            return null;
+        }
+
+        /**
+         * Format for a file name by extension, or null if it is not recognised.
+         */
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Receives parsed records in input order; accept is never passed null.
+     */
+    public interface RecordSink<T> {
+        void accept(long line, T record);
+
+        void reject(long line, String message);
+    }
+
+    public <T> void parse(InputStream in, Format format, Class<T> type, RecordSink<T> sink) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (format == Format.NDJSON) {
+            parseNdjson(reader, type, sink);
+        } else {
+            parseCsv(reader, type, sink);
+        }
+    }
+
+    private <T> void parseNdjson(BufferedReader reader, Class<T> type, RecordSink<T> sink) throws IOException {
+        long line = 0;
+        StringBuilder buffer = new StringBuilder();
+        while (readLine(reader, buffer)) {
+            line++;
+            if (buffer.length() > maxLineLength) {
+                sink.reject(line, "line longer than " + maxLineLength + " characters");
+                continue;
+            }
+            String text = buffer.toString();
+            if (text.isBlank()) {
+                continue;
+            }
+            T record;
+            try {
+                record = objectMapper.readValue(text, type);
+            } catch (JsonProcessingException e) {
+                sink.reject(line, e.getOriginalMessage());
+                continue;
+            }
+            // A line of just "null" is valid JSON but no record
+            if (record == null) {
+                sink.reject(line, "record is null");
+                continue;
+            }
+            sink.accept(line, record);
+        }
+    }
+
+    private <T> void parseCsv(Reader reader, Class<T> type, RecordSink<T> sink) throws IOException {
+        CsvReader csv = new CsvReader(reader, maxFieldLength, maxLineLength);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, String> properties = propertyNames(type);
+        String[] columns = new String[header.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = properties.get(normalize(header.get(i)));
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            long line = csv.recordLine();
+            if (fields.size() != columns.length) {
+                sink.reject(line, "expected " + columns.length + " fields but found " + fields.size());
+                continue;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                String value = fields.get(i).trim();
+                if (columns[i] != null && !value.isEmpty()) {
+                    values.put(columns[i], value);
+                }
+            }
+            T record;
+            try {
+                record = objectMapper.convertValue(values, type);
+            } catch (IllegalArgumentException e) {
+                sink.reject(line, e.getCause() instanceof JsonProcessingException json
+                        ? json.getOriginalMessage() : e.getMessage());
+                continue;
+            }
+            sink.accept(line, record);
+        }
+    }
+
+    /**
+     * Reads the next line into buffer without its line break, keeping at
+     * most maxLineLength + 1 characters of it; false at end of input.
+     */
+    private boolean readLine(Reader reader, StringBuilder buffer) throws IOException {
+        buffer.setLength(0);
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        long length = 0;
+        int previous = -1;
+        while (c != -1 && c != '\n') {
+            if (length++ <= maxLineLength) {
+                buffer.append((char) c);
+            }
+            previous = c;
+            c = reader.read();
+        }
+        if (previous == '\r' && --length < buffer.length()) {
+            buffer.setLength((int) length);
+        }
+        return true;
+    }
+
+    private static Map<String, String> propertyNames(Class<?> type) {
+        Map<String, String> names = new HashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                names.put(normalize(field.getName()), field.getName());
+            }
+        }
+        return names;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,488 @@
+package com.healthmap.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthmap.dto.AssessmentChangeMessage;
+import com.healthmap.dto.HealthSignalChangeMessage;
+import com.healthmap.dto.StatsDeltaMessage;
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.event.HealthSignalChangedEvent;
+import com.healthmap.event.HealthSignalSnapshot;
+import com.healthmap.model.Assessment.Priority;
+import com.healthmap.model.HealthSignal.SignalLevel;
+import com.healthmap.model.HealthSignal.SignalType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed changes to /api/events subscribers as Server-Sent Events.
+ *
+ * Changes are collected while a transaction runs and published together
+ * once it has committed (rolled-back work is never sent): one compact
+ * "assessment" or "health-signal" event per row, then one "stats" event with
+ * the transaction's net effect on the stats totals. Every event gets the next
+ * id and goes into a bounded replay ring, so a client reconnecting with
+ * {@code Last-Event-ID} receives what it missed; if that id has already left
+ * the ring, or was issued before this server started, it gets a "reset" event
+ * and should reload. Ids are {@code <boot epoch>-<n>} so numbering from an
+ * earlier run is never mistaken for the current one.
+ *
+ * Each client has its own bounded queue of committed transactions (the
+ * event lists are shared, not copied), drained in id order by a sender thread
+ * of its own while it has work, never by the thread that committed. A client
+ * whose queue overflows, whose write has been blocked for longer than
+ * {@code app.events.send-timeout-seconds}, or whose write fails is dropped; it
+ * can reconnect and resume from the ring. A comment line is sent every
+ * {@code app.events.heartbeat-seconds} to keep idle connections open.
+ */
+@Component
+public class ChangeEventBroadcaster implements SmartLifecycle {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final SignalType[] SIGNAL_TYPES = SignalType.values();
+
+    private record Event(long id, String name, String data) {
+    }
+
+    private static final Event HEARTBEAT = new Event(0, null, null);
+    private static final List<Event> HEARTBEAT_ONLY = List.of(HEARTBEAT);
+
+    private final Object transactionKey = new Object();
+    private final ObjectMapper objectMapper;
+    private final int replaySize;
+    private final int maxClients;
+    private final int clientQueueSize;
+    private final long sendTimeoutNanos;
+    private final long heartbeatSeconds;
+    private final String epoch = Long.toString(System.currentTimeMillis());
+
+    // Guarded by ring: id assignment, ring contents and the client list move together
+    private final Event[] ring;
+    private final List<Subscriber> clients = new ArrayList<>();
+    private long lastId;
+
+    private volatile boolean running;
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeat;
+
+    public ChangeEventBroadcaster(ObjectMapper objectMapper,
+                                  @Value("${app.events.replay-size:4096}") int replaySize,
+                                  @Value("${app.events.max-clients:256}") int maxClients,
+                                  @Value("${app.events.client-queue-size:64}") int clientQueueSize,
+                                  @Value("${app.events.send-timeout-seconds:10}") long sendTimeoutSeconds,
+                                  @Value("${app.events.heartbeat-seconds:25}") long heartbeatSeconds) {
+        this.objectMapper = objectMapper;
+        this.replaySize = replaySize;
+        this.maxClients = maxClients;
+        this.clientQueueSize = clientQueueSize;
+        this.sendTimeoutNanos = TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.ring = new Event[replaySize];
+    }
+
+    /**
+     * Opens a stream for a new client, replaying events after lastEventId
+     * (null for none) before any live ones. An id this server did not issue
+     * gets a "reset" event. Returns null when the client limit is reached.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        Long resumeAfter = lastEventId == null ? null : parseId(lastEventId);
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber;
+        synchronized (ring) {
+            if (!running || clients.size() >= maxClients) {
+                return null;
+            }
+            List<Event> backlog = new ArrayList<>();
+            boolean reset = lastEventId != null && resumeAfter == null;
+            if (resumeAfter != null && resumeAfter != lastId) {
+                long oldest = Math.max(1, lastId - replaySize + 1);
+                // Evicted from the ring, or not issued yet
+                reset = resumeAfter < oldest - 1 || resumeAfter > lastId;
+                for (long id = Math.max(resumeAfter + 1, oldest); !reset && id <= lastId; id++) {
+                    backlog.add(ring[(int) (id % replaySize)]);
+                }
+            }
+            if (reset) {
+                backlog = List.of(new Event(lastId, "reset", "{}"));
+            }
+            subscriber = new Subscriber(emitter, backlog);
+            clients.add(subscriber);
+        }
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscriber.schedule();
+        return emitter;
+    }
+
+    @EventListener
+    public void onAssessmentChanged(AssessmentChangedEvent event) {
+        pending().add(event);
+    }
+
+    @EventListener
+    public void onHealthSignalChanged(HealthSignalChangedEvent event) {
+        pending().add(event);
+    }
+
+    @Override
+    public void start() {
+        // At most one busy thread per client; idle ones exit after a minute
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "sse-send-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        heartbeat.scheduleWithFixedDelay(this::dropStalled, 1, 1, TimeUnit.SECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        List<Subscriber> open;
+        synchronized (ring) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            open = List.copyOf(clients);
+            clients.clear();
+        }
+        heartbeat.shutdownNow();
+        for (Subscriber subscriber : open) {
+            subscriber.closed = true;
+            subscriber.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Collecting changes per transaction
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(transactionKey);
+        if (pending != null) {
+            return pending;
+        }
+        Pending created = new Pending();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Not transactional: nothing can roll back, publish straight away
+            created.immediate = true;
+            return created;
+        }
+        TransactionSynchronizationManager.bindResource(transactionKey, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                if (status == STATUS_COMMITTED) {
+                    publish(created);
+                }
+            }
+        });
+        return created;
+    }
+
+    private final class Pending {
+        final List<Event> events = new ArrayList<>();
+        final long[] priorityDelta = new long[PRIORITIES.length];
+        final long[] signalTypeDelta = new long[SIGNAL_TYPES.length];
+        long assessmentDelta;
+        long overallRiskDelta;
+        long signalDelta;
+        long elevatedDelta;
+        boolean immediate;
+
+        void add(AssessmentChangedEvent event) {
+            AssessmentSnapshot row = event.after() != null ? event.after() : event.before();
+            events.add(new Event(0, "assessment", json(AssessmentChangeMessage.builder()
+                    .type(event.type().name())
+                    .id(row.id())
+                    .latitude(row.latitude())
+                    .longitude(row.longitude())
+                    .siteType(row.siteType() != null ? row.siteType().name() : null)
+                    .priority(row.priority() != null ? row.priority().name() : null)
+                    .overallRisk(row.overallRisk())
+                    .build())));
+            count(event.before(), -1);
+            count(event.after(), 1);
+            flushIfImmediate();
+        }
+
+        void add(HealthSignalChangedEvent event) {
+            HealthSignalSnapshot row = event.after() != null ? event.after() : event.before();
+            events.add(new Event(0, "health-signal", json(HealthSignalChangeMessage.builder()
+                    .type(event.type().name())
+                    .id(row.id())
+                    .areaId(row.areaId())
+                    .signalDate(row.signalDate())
+                    .signalType(row.signalType().name())
+                    .signalLevel(row.signalLevel().name())
+                    .build())));
+            count(event.before(), -1);
+            count(event.after(), 1);
+            flushIfImmediate();
+        }
+
+        private void count(AssessmentSnapshot row, int sign) {
+            if (row == null) {
+                return;
+            }
+            assessmentDelta += sign;
+            overallRiskDelta += (long) sign * row.overallRisk();
+            if (row.priority() != null) {
+                priorityDelta[row.priority().ordinal()] += sign;
+            }
+        }
+
+        private void count(HealthSignalSnapshot row, int sign) {
+            if (row == null) {
+                return;
+            }
+            signalDelta += sign;
+            signalTypeDelta[row.signalType().ordinal()] += sign;
+            if (row.signalLevel() == SignalLevel.ELEVATED) {
+                elevatedDelta += sign;
+            }
+        }
+
+        private void flushIfImmediate() {
+            if (immediate) {
+                publish(this);
+            }
+        }
+
+        Event statsEvent() {
+            if (assessmentDelta == 0 && overallRiskDelta == 0 && signalDelta == 0
+                    && nonZero(priorityDelta) == 0 && nonZero(signalTypeDelta) == 0) {
+                return null;
+            }
+            Map<String, Long> byPriority = new LinkedHashMap<>();
+            for (Priority priority : PRIORITIES) {
+                if (priorityDelta[priority.ordinal()] != 0) {
+                    byPriority.put(priority.name(), priorityDelta[priority.ordinal()]);
+                }
+            }
+            Map<String, Long> byType = new LinkedHashMap<>();
+            for (SignalType type : SIGNAL_TYPES) {
+                if (signalTypeDelta[type.ordinal()] != 0) {
+                    byType.put(type.name(), signalTypeDelta[type.ordinal()]);
+                }
+            }
+            return new Event(0, "stats", json(StatsDeltaMessage.builder()
+                    .totalAssessments(assessmentDelta)
+                    .assessmentsByPriority(byPriority)
+                    .overallRiskSum(overallRiskDelta)
+                    .totalSignals(signalDelta)
+                    .elevatedSignals(elevatedDelta)
+                    .signalsByType(byType)
+                    .build()));
+        }
+    }
+
+    private static int nonZero(long[] values) {
+        int count = 0;
+        for (long value : values) {
+            if (value != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Publishing
+
+    private void publish(Pending pending) {
+        Event stats = pending.statsEvent();
+        synchronized (ring) {
+            if (!running) {
+                return;
+            }
+            List<Event> numbered = new ArrayList<>(pending.events.size() + 1);
+            for (Event event : pending.events) {
+                numbered.add(append(event));
+            }
+            if (stats != null) {
+                numbered.add(append(stats));
+            }
+            for (Subscriber subscriber : List.copyOf(clients)) {
+                if (subscriber.queue.offer(numbered)) {
+                    subscriber.schedule();
+                } else {
+                    drop(subscriber, "event queue full");
+                }
+            }
+        }
+    }
+
+    private Event append(Event event) {
+        Event numbered = new Event(++lastId, event.name(), event.data());
+        ring[(int) (numbered.id() % replaySize)] = numbered;
+        return numbered;
+    }
+
+    private Long parseId(String value) {
+        if (!value.startsWith(epoch + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void sendHeartbeat() {
+        List<Subscriber> targets;
+        synchronized (ring) {
+            targets = List.copyOf(clients);
+        }
+        for (Subscriber subscriber : targets) {
+            // A full queue already has writes pending, which keep the connection alive
+            if (subscriber.queue.offer(HEARTBEAT_ONLY)) {
+                subscriber.schedule();
+            }
+        }
+    }
+
+    private void dropStalled() {
+        List<Subscriber> targets;
+        synchronized (ring) {
+            targets = List.copyOf(clients);
+        }
+        long now = System.nanoTime();
+        for (Subscriber subscriber : targets) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                drop(subscriber, "send timed out");
+            }
+        }
+    }
+
+    /**
+     * Stops feeding a client and ends its stream. Completion runs on a sender
+     * thread, since it waits for a write in progress to that client.
+     */
+    private void drop(Subscriber subscriber, String reason) {
+        remove(subscriber);
+        subscriber.closed = true;
+        execute(() -> subscriber.emitter.completeWithError(new IOException(reason)));
+    }
+
+    private void remove(Subscriber subscriber) {
+        synchronized (ring) {
+            clients.remove(subscriber);
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        final SseEmitter emitter;
+        final BlockingQueue<List<Event>> queue = new ArrayBlockingQueue<>(clientQueueSize);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // Reset or replayed events, sent before the queue; touched only by the sender
+        List<Event> backlog;
+        volatile long sendingSince;
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, List<Event> backlog) {
+            this.emitter = emitter;
+            this.backlog = backlog;
+        }
+
+        void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                List<Event> events = backlog;
+                backlog = List.of();
+                while (events != null && !closed) {
+                    for (Event event : events) {
+                        if (!send(event)) {
+                            return;
+                        }
+                    }
+                    events = queue.poll();
+                }
+                scheduled.set(false);
+                // An event offered after the last poll but before the flag cleared would be stranded
+            } while (!closed && !queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        private boolean send(Event event) {
+            sendingSince = System.nanoTime();
+            try {
+                if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .id(epoch + "-" + event.id())
+                            .name(event.name())
+                            .data(event.data(), MediaType.APPLICATION_JSON));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                remove(this);
+                emitter.completeWithError(e);
+                return false;
+            } finally {
+                sendingSince = 0;
+            }
+        }
+    }
+
+    private String json(Object message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.ChangesResponse;
+import com.healthmap.model.ChangeTracked;
+import com.healthmap.model.Tombstone;
+import com.healthmap.model.Tombstone.EntityType;
+import com.healthmap.repository.TombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Delta sync over {@link ChangeSequence} numbers: rows written and rows
+ * deleted after a token, merged in (changeSeq, id) order. Rows seeded before
+ * change tracking all carry 0, hence the id tie-breaker. The token is a
+ * {@link PageCursor} over that pair; a page never reads past the
+ * sequence watermark, so a transaction that commits late cannot slip in
+ * behind a token already handed out.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeFeed {
+
+    /**
+     * Changed rows of one entity after a (changeSeq, id) position and at or
+     * below {@code until}, in change order.
+     */
+    @FunctionalInterface
+    public interface ChangedRows<E> {
+        List<E> find(long changeSeq, long id, long until, Limit limit);
+    }
+
+    private final ChangeSequence changeSequence;
+    private final TombstoneRepository tombstoneRepository;
+
+    /**
+     * Leaves a tombstone for a deleted row; the caller owns the transaction.
+     */
+    public void recordDeletion(EntityType entityType, Long id) {
+        tombstoneRepository.save(Tombstone.builder()
+                .entityType(entityType)
+                .entityId(id)
+                .build());
+    }
+
+    /**
+     * One page of changes after {@code since}, or from the beginning when
+     * it is null.
+     */
+    @Transactional(readOnly = true)
+    public <E extends ChangeTracked, T> ChangesResponse<T> changes(String since, int limit,
+                                                                  EntityType entityType,
+                                                                  ChangedRows<E> changedRows,
+                                                                  Function<E, Long> idOf,
+                                                                  Function<E, T> mapper) {
+        long fromSeq = -1;
+        long fromId = 0;
+        if (since != null) {
+            PageCursor position = PageCursor.decode(since);
+            fromSeq = position.longKey();
+            fromId = position.id();
+        }
+        int pageSize = PageCursor.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        // Read the watermark first: everything at or below it is already committed
+        long until = changeSequence.watermark();
+        List<E> rows = changedRows.find(fromSeq, fromId, until, fetch);
+        List<Tombstone> tombstones = tombstoneRepository.findChangedAfter(entityType, fromSeq, fromId, until, fetch);
+
+        List<T> items = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int r = 0;
+        int t = 0;
+        long lastSeq = fromSeq;
+        long lastId = fromId;
+        while (items.size() + deleted.size() < pageSize && (r < rows.size() || t < tombstones.size())) {
+            E row = r < rows.size() ? rows.get(r) : null;
+            Tombstone tombstone = t < tombstones.size() ? tombstones.get(t) : null;
+            if (tombstone == null || (row != null
+                    && compare(row.getChangeSeq(), idOf.apply(row), tombstone.getChangeSeq(), tombstone.getEntityId()) < 0)) {
+                items.add(mapper.apply(row));
+                lastSeq = row.getChangeSeq();
+                lastId = idOf.apply(row);
+                r++;
+            } else {
+                deleted.add(tombstone.getEntityId());
+                lastSeq = tombstone.getChangeSeq();
+                lastId = tombstone.getEntityId();
+                t++;
+            }
+        }
+
+        boolean hasMore = r < rows.size() || t < tombstones.size();
+        String nextToken = hasMore
+                ? PageCursor.encode(lastSeq, lastId)
+                : PageCursor.encode(Math.max(until, fromSeq), Long.MAX_VALUE);
+        return ChangesResponse.<T>builder()
+                .items(items)
+                .deleted(deleted)
+                .nextToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static int compare(long seqA, long idA, long seqB, long idB) {
+        int bySeq = Long.compare(seqA, seqB);
+        return bySeq != 0 ? bySeq : Long.compare(idA, idB);
+    }
+}
@@ -0,0 +1,109 @@
+package com.healthmap.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+
+/**
+ * Monotonic change sequence shared by assessments, health signals and
+ * tombstones; every insert, update and delete takes the next number.
+ *
+ * Numbers are handed out in write order but become visible in commit order,
+ * so a reader must not move past a number whose transaction is still open,
+ * or that transaction's rows would land behind its token. Each transaction's
+ * first number is tracked until it completes, and {@link #watermark()} stops
+ * just below the oldest one still in flight: every number at or below it
+ * belongs to a finished transaction.
+ *
+ * A committed transaction is only released after its after-commit listeners
+ * have run (the release is registered at before-commit time, after theirs,
+ * as in {@link DataVersion}), so in-memory views that checkpoint against the
+ * watermark have applied every change at or below it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeSequence implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private boolean loaded;
+    private long last;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        Long max = jdbcTemplate.queryForObject("""
+                SELECT GREATEST(
+                    (SELECT COALESCE(MAX(change_seq), 0) FROM assessments),
+                    (SELECT COALESCE(MAX(change_seq), 0) FROM health_signals),
+                    (SELECT COALESCE(MAX(change_seq), 0) FROM tombstones))
+                """, Long.class);
+        last = Math.max(last, max == null ? 0 : max);
+        log.info("Change sequence starts after {}", last);
+    }
+
+    /**
+     * The next number, held back from the watermark until the calling
+     * transaction completes.
+     */
+    public synchronized long next() {
+        load();
+        long seq = ++last;
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, seq);
+            inFlight.add(seq);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean committing;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    committing = true;
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            release(seq);
+                        }
+                    });
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequence.this);
+                    if (!committing) {
+                        release(seq);
+                    }
+                }
+            });
+        }
+        return seq;
+    }
+
+    /**
+     * Highest number below which every change is committed or rolled back,
+     * and committed changes have been seen by after-commit listeners.
+     */
+    public synchronized long watermark() {
+        load();
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+
+    private synchronized void release(long seq) {
+        inFlight.remove(seq);
+    }
+}
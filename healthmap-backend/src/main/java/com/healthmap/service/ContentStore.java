@@ -0,0 +1,336 @@
+package com.healthmap.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for uploads under {@code file.upload-dir}.
+ *
+ * Content is hashed with SHA-256 while it streams to disk and kept once per
+ * hash, in {@code blobs/ab/cd/<hash>}, so identical photos re-sent by
+ * retrying clients cost no further space. Public file names stay unique per
+ * upload; each is a small file under {@code names/<first two chars>/} holding
+ * its blob's hash. Every blob has a reference count next to it; the count is
+ * raised before a name is written and lowered after one is removed, so a
+ * crash can only leave a blob over-counted, never deleted while named.
+ * Names, counts and blobs of one hash change only under that hash's lock
+ * stripe, and the name cache is only filled under it after checking the name
+ * is still on disk, so a lookup racing a delete cannot cache a removed name.
+ *
+ * Files from the flat layout used before are adopted once all beans exist
+ * (and on a lookup miss): hashed into a blob and named as before.
+ */
+@Service
+@Slf4j
+public class ContentStore implements SmartInitializingSingleton {
+
+    public record StoredFile(String name, String hash, boolean duplicate) {
+    }
+
+    public enum Removal {
+        NOT_FOUND, UNLINKED, BLOB_DELETED
+    }
+
+    /**
+     * Work on the files derived from a blob, run under the blob's lock.
+     */
+    public interface BlobAction {
+        void run(String hash) throws IOException;
+    }
+
+    // Any single path segment that is not hidden
+    private static final Pattern NAME = Pattern.compile("[^./\\\\:\\p{Cntrl}][^/\\\\:\\p{Cntrl}]{0,254}");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[A-Za-z0-9]{1,16}");
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final Path blobs;
+    private final Path names;
+    private final Path incoming;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<String, String> hashByName;
+
+    public ContentStore(@Value("${file.upload-dir}") String uploadDir,
+                        @Value("${app.files.name-cache-size:10000}") int nameCacheSize) throws IOException {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.blobs = root.resolve("blobs");
+        this.names = root.resolve("names");
+        this.incoming = root.resolve("incoming");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.hashByName = new LinkedHashMap<>(nameCacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > nameCacheSize;
+            }
+        };
+        Files.createDirectories(blobs);
+        Files.createDirectories(names);
+        Files.createDirectories(incoming);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            adoptFlatFiles();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not move uploads from the flat layout in " + root, e);
+        }
+    }
+
+    /**
+     * Streams an upload to disk under a new name with the given extension
+     * (including the dot, or empty), hashing it on the way.
+     */
+    public StoredFile store(InputStream in, String extension) throws IOException {
+        Path part = Files.createTempFile(incoming, "upload-", ".part");
+        try {
+            String hash;
+            try (OutputStream out = Files.newOutputStream(part)) {
+                hash = copyHashing(in, out);
+            }
+            String name = UUID.randomUUID() + extension;
+            boolean duplicate = link(name, hash, part);
+            return new StoredFile(name, hash, duplicate);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * Stores a complete file in the incoming directory, whose SHA-256 is
+     * already known, under a new name. The file is moved in or deleted.
+     */
+    public StoredFile store(Path file, String hash, String extension) throws IOException {
+        try {
+            String name = UUID.randomUUID() + extension;
+            boolean duplicate = link(name, hash, file);
+            return new StoredFile(name, hash, duplicate);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Where content is written before it is stored: on the same file system
+     * as the blobs, so it can be moved in rather than copied.
+     */
+    public Path incomingDirectory() {
+        return incoming;
+    }
+
+    /**
+     * The extension (with the dot) of an uploaded file's original name, if it
+     * is a plain one; otherwise empty.
+     */
+    public static String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.'));
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    /**
+     * Hash of the blob a name refers to, or null for an unknown name.
+     */
+    public String hashOf(String name) throws IOException {
+        if (!NAME.matcher(name).matches()) {
+            return null;
+        }
+        synchronized (hashByName) {
+            String cached = hashByName.get(name);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Path namePath = namePath(name);
+        String hash;
+        if (Files.isRegularFile(namePath)) {
+            hash = Files.readString(namePath, StandardCharsets.US_ASCII).trim();
+        } else if (Files.isRegularFile(root.resolve(name))) {
+            return adopt(root.resolve(name));
+        } else {
+            return null;
+        }
+        synchronized (lockFor(hash)) {
+            // A delete may have removed the name since it was read
+            if (!Files.isRegularFile(namePath)) {
+                return null;
+            }
+            synchronized (hashByName) {
+                hashByName.put(name, hash);
+            }
+        }
+        return hash;
+    }
+
+    public Path blobPath(String hash) {
+        return blobs.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Removes a name, and its blob once no other name refers to it. When the
+     * blob goes, onBlobDeleted removes what was derived from it before the
+     * lock is released, so a re-upload of the same content cannot overlap.
+     */
+    public Removal delete(String name, BlobAction onBlobDeleted) throws IOException {
+        String hash = hashOf(name);
+        if (hash == null) {
+            return Removal.NOT_FOUND;
+        }
+        synchronized (lockFor(hash)) {
+            if (!Files.deleteIfExists(namePath(name))) {
+                return Removal.NOT_FOUND;
+            }
+            synchronized (hashByName) {
+                hashByName.remove(name);
+            }
+            int refs = readRefs(hash) - 1;
+            if (refs > 0) {
+                writeRefs(hash, refs);
+                return Removal.UNLINKED;
+            }
+            Files.deleteIfExists(blobPath(hash));
+            Files.deleteIfExists(refsPath(hash));
+            onBlobDeleted.run(hash);
+            return Removal.BLOB_DELETED;
+        }
+    }
+
+    /**
+     * Runs an action under a blob's lock if the blob exists, so files derived
+     * from it are never left behind by a concurrent delete. Returns whether
+     * it ran.
+     */
+    public boolean ifBlobExists(String hash, BlobAction action) throws IOException {
+        synchronized (lockFor(hash)) {
+            if (!Files.isRegularFile(blobPath(hash))) {
+                return false;
+            }
+            action.run(hash);
+            return true;
+        }
+    }
+
+    /**
+     * Points a new name at the blob for the given hash, moving the content
+     * in if the blob does not exist yet. Returns whether it already did.
+     */
+    private boolean link(String name, String hash, Path content) throws IOException {
+        Path blob = blobPath(hash);
+        boolean duplicate;
+        synchronized (lockFor(hash)) {
+            duplicate = Files.exists(blob);
+            if (!duplicate) {
+                Files.createDirectories(blob.getParent());
+                Files.move(content, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+            writeRefs(hash, readRefs(hash) + 1);
+            writeAtomically(namePath(name), hash);
+            synchronized (hashByName) {
+                hashByName.put(name, hash);
+            }
+        }
+        return duplicate;
+    }
+
+    private void adoptFlatFiles() throws IOException {
+        int adopted = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, Files::isRegularFile)) {
+            for (Path file : entries) {
+                if (NAME.matcher(file.getFileName().toString()).matches()) {
+                    adopt(file);
+                    adopted++;
+                }
+            }
+        }
+        if (adopted > 0) {
+            log.info("Moved {} uploads from the flat layout into content-addressed storage", adopted);
+        }
+    }
+
+    /**
+     * Moves a file from the flat layout into a blob under the same name;
+     * safe to repeat after a crash part-way through.
+     */
+    private String adopt(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        Path namePath = namePath(name);
+        String hash;
+        if (Files.isRegularFile(namePath)) {
+            hash = Files.readString(namePath, StandardCharsets.US_ASCII).trim();
+        } else {
+            try (InputStream in = Files.newInputStream(file)) {
+                hash = copyHashing(in, OutputStream.nullOutputStream());
+            }
+            link(name, hash, file);
+        }
+        Files.deleteIfExists(file);
+        return hash;
+    }
+
+    private Path namePath(String name) {
+        return names.resolve(name.substring(0, Math.min(2, name.length()))).resolve(name);
+    }
+
+    private Path refsPath(String hash) {
+        return blobPath(hash).resolveSibling(hash + ".refs");
+    }
+
+    private int readRefs(String hash) throws IOException {
+        Path refs = refsPath(hash);
+        return Files.exists(refs) ? Integer.parseInt(Files.readString(refs, StandardCharsets.US_ASCII).trim()) : 0;
+    }
+
+    private void writeRefs(String hash, int refs) throws IOException {
+        writeAtomically(refsPath(hash), Integer.toString(refs));
+    }
+
+    private static void writeAtomically(Path target, String content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(tmp, content, StandardCharsets.US_ASCII);
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String copyHashing(InputStream in, OutputStream out) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, read);
+            out.write(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,57 +1,47 @@
 package com.healthmap.service;
 
 import com.healthmap.dto.CorrelationResponse;
-import com.healthmap.model.Assessment;
-import com.healthmap.model.HealthSignal;
-import com.healthmap.repository.AssessmentRepository;
-import com.healthmap.repository.HealthSignalRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CorrelationService {
 
-    private final AssessmentRepository assessmentRepository;
-    private final HealthSignalRepository healthSignalRepository;
+    private final AreaCorrelationStore areaCorrelationStore;
+    private final AreaMetricsAggregator areaMetricsAggregator;
 
     private static final double AREA_PROXIMITY_KM = 2.0; // Consider areas within 2km as same area
-    private static final int RECENT_DAYS = 30; // Last 30 days for health signals
 
     /**
-     * Analyzes correlations between environmental risks and health signals
+     * Analyzes correlations between environmental risks and health signals.
+     * Per-area totals are maintained incrementally by {@link AreaCorrelationStore};
+     * this only scores and sorts the areas.
      */
     public CorrelationResponse analyzeCorrelations() {
         log.info("Starting environmental-health correlation analysis");
+        return scoreAreas(areaCorrelationStore.snapshot());
+    }
 
-        List<Assessment> assessments = assessmentRepository.findAll();
-        List<HealthSignal> recentSignals = healthSignalRepository.findRecentSignals(
-                LocalDate.now().minusDays(RECENT_DAYS));
-
-        // Group assessments and signals by area
-        Map<String, List<Assessment>> assessmentsByArea = groupAssessmentsByArea(assessments);
-        Map<String, List<HealthSignal>> signalsByArea = recentSignals.stream()
-                .collect(Collectors.groupingBy(HealthSignal::getAreaId));
-
-        // Build correlations for each area
-        List<CorrelationResponse.AreaCorrelation> areaCorrelations = new ArrayList<>();
-        Set<String> allAreas = new HashSet<>();
-        allAreas.addAll(assessmentsByArea.keySet());
-        allAreas.addAll(signalsByArea.keySet());
+    /**
+     * Same analysis, recomputed from scratch for health signals dated within
+     * [from, to], for reports and backfills outside the live 30-day window.
+     */
+    public CorrelationResponse analyzeCorrelations(LocalDate from, LocalDate to) {
+        log.info("Starting environmental-health correlation analysis for {} to {}", from, to);
+        return scoreAreas(areaMetricsAggregator.aggregate(from, to));
+    }
 
-        for (String areaId : allAreas) {
-            List<Assessment> areaAssessments = assessmentsByArea.getOrDefault(areaId, Collections.emptyList());
-            List<HealthSignal> areaSignals = signalsByArea.getOrDefault(areaId, Collections.emptyList());
-            
-            CorrelationResponse.AreaCorrelation correlation = buildAreaCorrelation(
-                    areaId, areaAssessments, areaSignals);
-            areaCorrelations.add(correlation);
+    private CorrelationResponse scoreAreas(List<AreaMetrics> areas) {
+        List<CorrelationResponse.AreaCorrelation> areaCorrelations = new ArrayList<>(areas.size());
+        for (AreaMetrics metrics : areas) {
+            areaCorrelations.add(buildAreaCorrelation(metrics));
         }
 
         // Sort by correlation score (highest risk first)
@@ -69,62 +59,17 @@ public class CorrelationService {
                 .build();
     }
 
-    private Map<String, List<Assessment>> groupAssessmentsByArea(List<Assessment> assessments) {
-        // For now, group by proximity or use a simple grid system
-        // In production, this would use actual area IDs or neighborhood names
-        Map<String, List<Assessment>> grouped = new HashMap<>();
-        
-        for (Assessment assessment : assessments) {
-            // Generate area ID based on location (simple grid)
-            String areaId = generateAreaId(assessment.getLatitude(), assessment.getLongitude());
-            grouped.computeIfAbsent(areaId, k -> new ArrayList<>()).add(assessment);
-        }
-        
-        return grouped;
-    }
-
-    private String generateAreaId(Double lat, Double lon) {
-        // Simple grid-based area ID (0.01 degree ~= 1km)
-        int latGrid = (int) (lat / 0.01);
-        int lonGrid = (int) (lon / 0.01);
-        return String.format("AREA_%d_%d", latGrid, lonGrid);
-    }
-
-    private CorrelationResponse.AreaCorrelation buildAreaCorrelation(
-            String areaId, 
-            List<Assessment> assessments, 
-            List<HealthSignal> signals) {
-
-        // Calculate environmental risk metrics
-        int assessmentCount = assessments.size();
-        double avgEnvRisk = assessments.stream()
-                .mapToInt(Assessment::getOverallRisk)
-                .average()
-                .orElse(0.0);
-        
-        int criticalAssessments = (int) assessments.stream()
-                .filter(a -> a.getPriority() == Assessment.Priority.CRITICAL)
-                .count();
-
-        String primaryRiskType = determinePrimaryRiskType(assessments);
-
-        // Calculate health signal metrics
-        int signalCount = signals.size();
-        int elevatedCount = (int) signals.stream()
-                .filter(s -> s.getSignalLevel() == HealthSignal.SignalLevel.ELEVATED)
-                .count();
-
-        boolean hasRespiratory = signals.stream()
-                .anyMatch(s -> s.getSignalType() == HealthSignal.SignalType.RESPIRATORY 
-                        && s.getSignalLevel() == HealthSignal.SignalLevel.ELEVATED);
+    private CorrelationResponse.AreaCorrelation buildAreaCorrelation(AreaMetrics metrics) {
 
-        boolean hasGI = signals.stream()
-                .anyMatch(s -> s.getSignalType() == HealthSignal.SignalType.GASTROINTESTINAL 
-                        && s.getSignalLevel() == HealthSignal.SignalLevel.ELEVATED);
+        // Environmental risk metrics
+        double avgEnvRisk = metrics.averageRisk();
+        String primaryRiskType = determinePrimaryRiskType(metrics);
 
-        boolean hasSkin = signals.stream()
-                .anyMatch(s -> s.getSignalType() == HealthSignal.SignalType.SKIN 
-                        && s.getSignalLevel() == HealthSignal.SignalLevel.ELEVATED);
+        // Health signal metrics
+        int elevatedCount = metrics.elevatedCount();
+        boolean hasRespiratory = metrics.respiratoryElevated();
+        boolean hasGI = metrics.gastrointestinalElevated();
+        boolean hasSkin = metrics.skinElevated();
 
         // Calculate correlation score and risk level
         int correlationScore = calculateCorrelationScore(
@@ -140,29 +85,16 @@ public class CorrelationService {
         List<String> linkedRisks = identifyLinkedRisks(
                 primaryRiskType, hasRespiratory, hasGI, hasSkin);
 
-        // Get area name and location
-        String areaName = signals.isEmpty() ? 
-                (assessments.isEmpty() ? areaId : "Area " + areaId) :
-                signals.get(0).getAreaName();
-        
-        Double latitude = signals.isEmpty() ?
-                (assessments.isEmpty() ? null : assessments.get(0).getLatitude()) :
-                signals.get(0).getLatitude();
-        
-        Double longitude = signals.isEmpty() ?
-                (assessments.isEmpty() ? null : assessments.get(0).getLongitude()) :
-                signals.get(0).getLongitude();
-
         return CorrelationResponse.AreaCorrelation.builder()
-                .areaId(areaId)
-                .areaName(areaName)
-                .latitude(latitude)
-                .longitude(longitude)
-                .assessmentCount(assessmentCount)
+                .areaId(metrics.areaId())
+                .areaName(metrics.areaName())
+                .latitude(metrics.latitude())
+                .longitude(metrics.longitude())
+                .assessmentCount(metrics.assessmentCount())
                 .averageEnvironmentalRisk(Math.round(avgEnvRisk * 10.0) / 10.0)
                 .primaryRiskType(primaryRiskType)
-                .criticalAssessments(criticalAssessments)
-                .healthSignalCount(signalCount)
+                .criticalAssessments(metrics.criticalCount())
+                .healthSignalCount(metrics.signalCount())
                 .elevatedSignalCount(elevatedCount)
                 .hasRespiratoryRisk(hasRespiratory)
                 .hasGastrointestinalRisk(hasGI)
@@ -174,18 +106,11 @@ public class CorrelationService {
                 .build();
     }
 
-    private String determinePrimaryRiskType(List<Assessment> assessments) {
-        if (assessments.isEmpty()) return "NONE";
+    private String determinePrimaryRiskType(AreaMetrics metrics) {
+        if (metrics.assessmentCount() == 0) return "NONE";
 
-        long debrisCount = assessments.stream()
-                .filter(a -> a.getSiteType() == Assessment.SiteType.DEBRIS || 
-                             a.getSiteType() == Assessment.SiteType.BOTH)
-                .count();
-
-        long waterCount = assessments.stream()
-                .filter(a -> a.getSiteType() == Assessment.SiteType.WATER || 
-                             a.getSiteType() == Assessment.SiteType.BOTH)
-                .count();
+        long debrisCount = metrics.debrisCount();
+        long waterCount = metrics.waterCount();
 
         if (debrisCount > 0 && waterCount > 0) return "BOTH";
         if (debrisCount > waterCount) return "DEBRIS";
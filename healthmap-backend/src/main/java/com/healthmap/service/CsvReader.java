@@ -0,0 +1,140 @@
+package com.healthmap.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader: one record per {@link #next()} call, with
+ * quoted fields, doubled quotes and line breaks inside quotes. Only the
+ * current record is held in memory, and it is capped: a field or record over
+ * its limit (an unclosed quote swallowing the rest of the input, say) is
+ * malformed input.
+ */
+public class CsvReader {
+
+    private final Reader in;
+    private final int maxFieldLength;
+    private final int maxRecordLength;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2;
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(Reader in, int maxFieldLength, int maxRecordLength) {
+        this.in = in;
+        this.maxFieldLength = maxFieldLength;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Line on which the record last returned by {@link #next()} started.
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Next record's fields, or null at end of input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            skipLineBreak(c);
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordLength) {
+                throw new MalformedCsvException(recordLine, "record longer than " + maxRecordLength + " characters");
+            }
+            if (field.length() > maxFieldLength) {
+                throw new MalformedCsvException(recordLine, "field longer than " + maxFieldLength + " characters");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new MalformedCsvException(recordLine, "unterminated quoted field");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                fields.add(field.toString());
+                if (c != -1) {
+                    skipLineBreak(c);
+                }
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Completes a line break (\n, \r or \r\n) whose first character was c.
+     */
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int following = read();
+            if (following != '\n') {
+                pushedBack = following;
+            }
+        }
+    }
+
+    /**
+     * Input that cannot be split into records; nothing after it can be read.
+     */
+    public static class MalformedCsvException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long line;
+
+        public MalformedCsvException(long line, String message) {
+            super(message + " starting on line " + line);
+            this.line = line;
+        }
+
+        public long getLine() {
+            return line;
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,54 @@
+package com.healthmap.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes RFC 4180 records, quoting only fields that need it. The counterpart
+ * of {@link CsvReader}.
+ */
+public class CsvWriter {
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Appends one field to the current record; null is written as an empty field.
+     */
+    public void field(Object value) throws IOException {
+        if (!firstField) {
+            out.write(',');
+        }
+        firstField = false;
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (needsQuoting(text)) {
+            out.write('"');
+            out.write(text.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(text);
+        }
+    }
+
+    public void endRecord() throws IOException {
+        out.write("\r\n");
+        firstField = true;
+    }
+
+    private static boolean needsQuoting(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.healthmap.service;
+
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.HealthSignalChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic counters of committed assessment and health signal writes, used
+ * to key cached responses. Each counter moves once per committing
+ * transaction, however many rows it wrote. The counters start from zero on
+ * every boot while stored data outlives it, so they only identify data
+ * together with {@link #epoch()}.
+ *
+ * The bump must come after the in-memory stores (stats aggregate, cluster
+ * index, correlation store) have applied the change, or a response built
+ * from their old state could be cached under the new version. Those stores
+ * listen after commit at the default (lowest) order, so no listener order
+ * can run later; instead the bump is a synchronization registered at
+ * before-commit time, which is later than every listener's registration
+ * and therefore runs after them among equal orders.
+ */
+@Component
+public class DataVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong assessments = new AtomicLong();
+    private final AtomicLong healthSignals = new AtomicLong();
+
+    /**
+     * Distinguishes this run's counters from those of earlier runs.
+     */
+    public String epoch() {
+        return epoch;
+    }
+
+    public long assessments() {
+        return assessments.get();
+    }
+
+    public long healthSignals() {
+        return healthSignals.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAssessmentChanged(AssessmentChangedEvent event) {
+        bumpAfterCommit(assessments);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onHealthSignalChanged(HealthSignalChangedEvent event) {
+        bumpAfterCommit(healthSignals);
+    }
+
+    private static void bumpAfterCommit(AtomicLong counter) {
+        // Events for every row of a batch arrive here; register one bump per transaction
+        if (TransactionSynchronizationManager.hasResource(counter)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(counter, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(counter);
+                if (status == STATUS_COMMITTED) {
+                    counter.incrementAndGet();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,423 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.AssessmentRequest;
+import com.healthmap.dto.HealthSignalRequest;
+import com.healthmap.dto.ImportJobResponse;
+import com.healthmap.model.Assessment;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Imports CSV / NDJSON files dropped into {@code app.import.dir}.
+ *
+ * Files go in the {@code assessments/} or {@code health-signals/}
+ * subdirectory and are picked up by a {@link WatchService} once their size
+ * stops changing. Each file runs through a staged pipeline:
+ * <ol>
+ *   <li>parse stage (one thread): parse, validate and, for assessments, score
+ *       with {@link RiskCalculator}, cutting accepted rows into batches;</li>
+ *   <li>write stage (one thread): insert each batch in its own transaction.</li>
+ * </ol>
+ * The stages are connected by a bounded queue, so parsing runs ahead of the
+ * database by at most {@code app.import.queue-capacity} batches. Finished
+ * files are moved to {@code processed/} (or {@code failed/}), and per-file
+ * progress and throughput are logged and listed by {@link #recentJobs()}.
+ *
+ * Batches are committed as they arrive, so a file that turns out to be
+ * unreadable part-way (malformed CSV, a read error) has already written the
+ * rows before the damage. Such a file is not reported as failed but as
+ * {@code PARTIAL}, naming the rows written, and moved to {@code failed/};
+ * dropping it in again once fixed would write those rows a second time.
+ */
+@Component
+@Slf4j
+public class DropDirectoryImporter implements SmartLifecycle {
+
+    public enum RecordType {
+        ASSESSMENTS("assessments", AssessmentRequest.class),
+        HEALTH_SIGNALS("health-signals", HealthSignalRequest.class);
+
+        final String directory;
+        final Class<Object> requestType;
+
+        @SuppressWarnings("unchecked")
+        RecordType(String directory, Class<?> requestType) {
+            this.directory = directory;
+            this.requestType = (Class<Object>) requestType;
+        }
+    }
+
+    private static final int MAX_TRACKED_JOBS = 50;
+    private static final long SETTLE_MILLIS = 500;
+    private static final int PROGRESS_LOG_BATCHES = 20;
+    private static final DateTimeFormatter ARCHIVE_PREFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-");
+
+    private final BulkRecordParser parser;
+    private final Validator validator;
+    private final RiskCalculator riskCalculator;
+    private final AssessmentService assessmentService;
+    private final HealthSignalService healthSignalService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobThreads jobThreads;
+    private final boolean enabled;
+    private final Path root;
+    private final int batchSize;
+    private final BlockingQueue<Batch> queue;
+
+    private final Deque<ImportJob> jobs = new ArrayDeque<>();
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private ExecutorService parseStage;
+    private Thread writeStage;
+    private Thread watcher;
+    private WatchService watchService;
+
+    public DropDirectoryImporter(BulkRecordParser parser,
+                                 Validator validator,
+                                 RiskCalculator riskCalculator,
+                                 AssessmentService assessmentService,
+                                 HealthSignalService healthSignalService,
+                                 PlatformTransactionManager transactionManager,
+                                 JobThreads jobThreads,
+                                 @Value("${app.import.enabled:true}") boolean enabled,
+                                 @Value("${app.import.dir:./import}") String dir,
+                                 @Value("${app.ingest.batch-size:500}") int batchSize,
+                                 @Value("${app.import.queue-capacity:4}") int queueCapacity) {
+        this.parser = parser;
+        this.validator = validator;
+        this.riskCalculator = riskCalculator;
+        this.assessmentService = assessmentService;
+        this.healthSignalService = healthSignalService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobThreads = jobThreads;
+        this.enabled = enabled;
+        this.root = Paths.get(dir);
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public List<ImportJobResponse> recentJobs() {
+        synchronized (jobs) {
+            return jobs.stream().map(ImportJob::toResponse).toList();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            watchService = root.getFileSystem().newWatchService();
+            for (RecordType type : RecordType.values()) {
+                Path dir = root.resolve(type.directory);
+                Files.createDirectories(dir);
+                dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+            }
+            Files.createDirectories(root.resolve("processed"));
+            Files.createDirectories(root.resolve("failed"));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not set up import directory: " + root, e);
+        }
+
+        running = true;
+        parseStage = Executors.newSingleThreadExecutor(jobThreads.named("import-parse"));
+        writeStage = jobThreads.named("import-write").newThread(this::runWriteStage);
+        writeStage.start();
+        watcher = new Thread(this::runWatcher, "import-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+
+        // Files dropped while the application was down
+        for (RecordType type : RecordType.values()) {
+            try (DirectoryStream<Path> existing = Files.newDirectoryStream(root.resolve(type.directory))) {
+                existing.forEach(file -> submit(file, type));
+            } catch (IOException e) {
+                log.warn("Could not list {}: {}", root.resolve(type.directory), e.getMessage());
+            }
+        }
+        log.info("Watching {} for assessment and health signal imports", root.toAbsolutePath());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Closing import watch service: {}", e.getMessage());
+        }
+        parseStage.shutdownNow();
+        writeStage.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runWatcher() {
+        try {
+            while (running) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                RecordType type = Arrays.stream(RecordType.values())
+                        .filter(t -> root.resolve(t.directory).equals(dir))
+                        .findFirst().orElseThrow();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() != OVERFLOW) {
+                        submit(dir.resolve((Path) event.context()), type);
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private void submit(Path file, RecordType type) {
+        String name = file.getFileName().toString();
+        BulkRecordParser.Format format = BulkRecordParser.Format.fromFileName(name);
+        if (format == null || name.startsWith(".") || !pending.add(file)) {
+            return;
+        }
+        parseStage.execute(() -> runParseStage(file, type, format));
+    }
+
+    private void runParseStage(Path file, RecordType type, BulkRecordParser.Format format) {
+        ImportJob job;
+        try {
+            long size = awaitSettled(file);
+            if (size < 0) {
+                pending.remove(file);
+                return;
+            }
+            job = new ImportJob(file, type, size);
+        } catch (InterruptedException e) {
+            return;
+        }
+        track(job);
+        job.start();
+        log.info("Importing {} ({} bytes) as {}", file.getFileName(), job.fileSize, type);
+
+        BatchingSink sink = new BatchingSink(job);
+        String failure = null;
+        try (InputStream in = Files.newInputStream(file)) {
+            parser.parse(in, format, type.requestType, sink);
+        } catch (CsvReader.MalformedCsvException e) {
+            job.reject(e.getLine(), e.getMessage());
+            failure = e.getMessage();
+        } catch (IOException | RuntimeException e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        try {
+            sink.send(true, failure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until the file's size stops changing, so files still being copied
+     * in are not read half-written. Returns -1 if the file went away.
+     */
+    private long awaitSettled(Path file) throws InterruptedException {
+        long previous = -1;
+        while (true) {
+            long size;
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                return -1;
+            }
+            if (size == previous) {
+                return size;
+            }
+            previous = size;
+            Thread.sleep(SETTLE_MILLIS);
+        }
+    }
+
+    private void runWriteStage() {
+        int batchesWritten = 0;
+        while (running || !queue.isEmpty()) {
+            Batch batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            ImportJob job = batch.job();
+            if (!batch.records().isEmpty()) {
+                write(batch);
+                if (++batchesWritten % PROGRESS_LOG_BATCHES == 0) {
+                    log.info("Importing {}: {} written, {} rejected, {} rows/s",
+                            job.file.getFileName(), job.accepted.get(), job.rejected.get(), job.rowsPerSecond());
+                }
+            }
+            if (batch.last()) {
+                complete(job, batch.failure());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(Batch batch) {
+        ImportJob job = batch.job();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (job.recordType == RecordType.ASSESSMENTS) {
+                    assessmentService.insertScored((List<Assessment>) (List<?>) batch.records());
+                } else {
+                    healthSignalService.createHealthSignals((List<HealthSignalRequest>) (List<?>) batch.records());
+                }
+            });
+            job.accepted.addAndGet(batch.records().size());
+        } catch (RuntimeException e) {
+            log.warn("Import batch of {} starting at line {} failed: {}",
+                    job.file.getFileName(), batch.lines()[0], e.getMessage());
+            for (long line : batch.lines()) {
+                job.reject(line, "batch write failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void complete(ImportJob job, String failure) {
+        Path target = root.resolve(failure == null ? "processed" : "failed")
+                .resolve(LocalDateTime.now().format(ARCHIVE_PREFIX) + job.file.getFileName());
+        try {
+            Files.move(job.file, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Could not move imported file {}: {}", job.file, e.getMessage());
+        }
+        pending.remove(job.file);
+
+        if (failure == null) {
+            job.finish(ImportJob.Status.COMPLETED, null);
+            log.info("Imported {}: {} parsed, {} written, {} rejected, {} rows/s",
+                    job.file.getFileName(), job.parsed.get(), job.accepted.get(), job.rejected.get(),
+                    job.rowsPerSecond());
+        } else if (job.accepted.get() > 0) {
+            job.finish(ImportJob.Status.PARTIAL, "stopped after writing " + job.accepted.get() + " rows: " + failure);
+            log.warn("Import of {} stopped after writing {} rows: {}", job.file.getFileName(), job.accepted.get(),
+                    failure);
+        } else {
+            job.finish(ImportJob.Status.FAILED, failure);
+            log.warn("Import of {} failed after {} rows: {}", job.file.getFileName(), job.parsed.get(), failure);
+        }
+    }
+
+    private void track(ImportJob job) {
+        synchronized (jobs) {
+            jobs.addFirst(job);
+            while (jobs.size() > MAX_TRACKED_JOBS) {
+                jobs.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Parse-stage sink: validates and scores records and hands full batches
+     * to the write stage, blocking while the queue is full.
+     */
+    private final class BatchingSink implements BulkRecordParser.RecordSink<Object> {
+
+        private final ImportJob job;
+        private List<Object> records = new ArrayList<>(batchSize);
+        private long[] lines = new long[batchSize];
+
+        BatchingSink(ImportJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void accept(long line, Object request) {
+            job.parsed.incrementAndGet();
+            if (request == null) {
+                // The validator throws on null, which would end the whole file
+                job.reject(line, "record is null");
+                return;
+            }
+            Set<ConstraintViolation<Object>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                job.reject(line, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (request instanceof AssessmentRequest assessmentRequest) {
+                Assessment assessment = assessmentService.toEntity(assessmentRequest);
+                riskCalculator.calculateRisks(assessment);
+                records.add(assessment);
+            } else {
+                records.add(request);
+            }
+            lines[records.size() - 1] = line;
+            if (records.size() == batchSize) {
+                try {
+                    send(false, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("import interrupted");
+                }
+            }
+        }
+
+        @Override
+        public void reject(long line, String message) {
+            job.parsed.incrementAndGet();
+            job.reject(line, message);
+        }
+
+        void send(boolean last, String failure) throws InterruptedException {
+            queue.put(new Batch(job, records, Arrays.copyOf(lines, records.size()), last, failure));
+            records = new ArrayList<>(batchSize);
+            lines = new long[batchSize];
+        }
+    }
+
+    private record Batch(ImportJob job, List<Object> records, long[] lines, boolean last, String failure) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.healthmap.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthmap.model.Assessment;
+import com.healthmap.model.HealthSignal;
+import com.healthmap.repository.AssessmentRepository;
+import com.healthmap.repository.HealthSignalRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Streams full-history exports as CSV or NDJSON straight from a repository
+ * cursor. Each row is written and detached before the next is read, so an
+ * export of any size holds one row in memory. Column names match the request
+ * DTO fields, so exported files can be dropped back into the importer.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private static final List<Column<Assessment>> ASSESSMENT_COLUMNS = List.of(
+            new Column<>("id", Assessment::getId),
+            new Column<>("latitude", Assessment::getLatitude),
+            new Column<>("longitude", Assessment::getLongitude),
+            new Column<>("siteType", Assessment::getSiteType),
+            new Column<>("buildingAge", Assessment::getBuildingAge),
+            new Column<>("dustPresent", Assessment::getDustPresent),
+            new Column<>("oldMaterials", Assessment::getOldMaterials),
+            new Column<>("nearPopulation", Assessment::getNearPopulation),
+            new Column<>("sewageVisible", Assessment::getSewageVisible),
+            new Column<>("standingWater", Assessment::getStandingWater),
+            new Column<>("materialType", Assessment::getMaterialType),
+            new Column<>("asbestosRisk", Assessment::getAsbestosRisk),
+            new Column<>("waterRisk", Assessment::getWaterRisk),
+            new Column<>("overallRisk", Assessment::getOverallRisk),
+            new Column<>("priority", Assessment::getPriority),
+            new Column<>("imagePath", Assessment::getImagePath),
+            new Column<>("notes", Assessment::getNotes),
+            new Column<>("createdBy", Assessment::getCreatedBy),
+            new Column<>("createdAt", Assessment::getCreatedAt),
+            new Column<>("updatedAt", Assessment::getUpdatedAt)
+    );
+
+    private static final List<Column<HealthSignal>> SIGNAL_COLUMNS = List.of(
+            new Column<>("id", HealthSignal::getId),
+            new Column<>("areaId", HealthSignal::getAreaId),
+            new Column<>("areaName", HealthSignal::getAreaName),
+            new Column<>("signalDate", HealthSignal::getSignalDate),
+            new Column<>("signalType", HealthSignal::getSignalType),
+            new Column<>("signalLevel", HealthSignal::getSignalLevel),
+            new Column<>("source", HealthSignal::getSource),
+            new Column<>("notes", HealthSignal::getNotes),
+            new Column<>("latitude", HealthSignal::getLatitude),
+            new Column<>("longitude", HealthSignal::getLongitude),
+            new Column<>("reportedBy", HealthSignal::getReportedBy),
+            new Column<>("createdAt", HealthSignal::getCreatedAt),
+            new Column<>("updatedAt", HealthSignal::getUpdatedAt)
+    );
+
+    private final AssessmentRepository assessmentRepository;
+    private final HealthSignalRepository healthSignalRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Assessments created within [from, to] (inclusive dates), optionally
+     * limited to one priority and one {@link AreaGrid} area. Null arguments
+     * disable their filter; areaId must be a grid area id if given.
+     */
+    @Transactional(readOnly = true)
+    public void writeAssessments(OutputStream out, BulkRecordParser.Format format,
+                                 LocalDate from, LocalDate to,
+                                 Assessment.Priority priority, String areaId) throws IOException {
+        BoundingBox box = null;
+        Predicate<Assessment> inArea = a -> true;
+        if (areaId != null) {
+            long cell = AreaGrid.parseAreaId(areaId);
+            box = AreaGrid.bounds(cell);
+            inArea = a -> AreaGrid.cellKey(a.getLatitude(), a.getLongitude()) == cell;
+        }
+
+        try (Stream<Assessment> rows = assessmentRepository.streamForExport(
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay(),
+                priority,
+                box == null ? null : box.minLat(), box == null ? null : box.maxLat(),
+                box == null ? null : box.minLon(), box == null ? null : box.maxLon())) {
+            write(out, format, rows, ASSESSMENT_COLUMNS, inArea);
+        }
+    }
+
+    /**
+     * Health signals dated within [from, to] (inclusive), optionally limited
+     * to one reported area and one signal level.
+     */
+    @Transactional(readOnly = true)
+    public void writeHealthSignals(OutputStream out, BulkRecordParser.Format format,
+                                   LocalDate from, LocalDate to,
+                                   String areaId, HealthSignal.SignalLevel signalLevel) throws IOException {
+        try (Stream<HealthSignal> rows = healthSignalRepository.streamForExport(from, to, areaId, signalLevel)) {
+            write(out, format, rows, SIGNAL_COLUMNS, s -> true);
+        }
+    }
+
+    private <T> void write(OutputStream out, BulkRecordParser.Format format, Stream<T> rows,
+                           List<Column<T>> columns, Predicate<T> keep) throws IOException {
+        if (format == BulkRecordParser.Format.CSV) {
+            writeCsv(out, rows, columns, keep);
+        } else {
+            writeNdjson(out, rows, columns, keep);
+        }
+    }
+
+    private <T> void writeCsv(OutputStream out, Stream<T> rows, List<Column<T>> columns,
+                              Predicate<T> keep) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        CsvWriter csv = new CsvWriter(writer);
+        for (Column<T> column : columns) {
+            csv.field(column.name());
+        }
+        csv.endRecord();
+
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (keep.test(row)) {
+                for (Column<T> column : columns) {
+                    csv.field(column.value().apply(row));
+                }
+                csv.endRecord();
+            }
+            entityManager.detach(row);
+        }
+        writer.flush();
+    }
+
+    private <T> void writeNdjson(OutputStream out, Stream<T> rows, List<Column<T>> columns,
+                                 Predicate<T> keep) throws IOException {
+        // Closing after a failure must not finish the half-written row, or it would read as a complete record
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            // One object per line, no separator between root values
+            json.setRootValueSeparator(null);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                if (keep.test(row)) {
+                    json.writeStartObject();
+                    for (Column<T> column : columns) {
+                        json.writeFieldName(column.name());
+                        json.writeObject(column.value().apply(row));
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+                entityManager.detach(row);
+            }
+        }
+    }
+}
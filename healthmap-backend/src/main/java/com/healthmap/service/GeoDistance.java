@@ -0,0 +1,53 @@
+package com.healthmap.service;
+
+import java.util.List;
+
+/**
+ * Great-circle distance helpers on a spherical Earth.
+ */
+public final class GeoDistance {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    public static final double KM_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private GeoDistance() {
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double h = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    /**
+     * Smallest boxes containing every point within radiusKm of the centre:
+     * one, or two split at the antimeridian when the circle crosses it.
+     */
+    public static List<BoundingBox> boundingBoxes(double latitude, double longitude, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double minLat = Math.max(-90.0, latitude - dLat);
+        double maxLat = Math.min(90.0, latitude + dLat);
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double dLon = cosLat <= 1e-6 ? 180.0 : Math.min(180.0, radiusKm / (KM_PER_DEGREE_LAT * cosLat));
+        double west = longitude - dLon;
+        double east = longitude + dLon;
+        if (dLon >= 180.0) {
+            return List.of(new BoundingBox(-180.0, minLat, 180.0, maxLat));
+        }
+        if (west < -180.0) {
+            return List.of(
+                    new BoundingBox(west + 360.0, minLat, 180.0, maxLat),
+                    new BoundingBox(-180.0, minLat, east, maxLat));
+        }
+        if (east > 180.0) {
+            return List.of(
+                    new BoundingBox(west, minLat, 180.0, maxLat),
+                    new BoundingBox(-180.0, minLat, east - 360.0, maxLat));
+        }
+        return List.of(new BoundingBox(west, minLat, east, maxLat));
+    }
+}
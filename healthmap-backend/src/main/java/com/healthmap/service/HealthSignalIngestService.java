@@ -0,0 +1,149 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.HealthSignalRequest;
+import com.healthmap.dto.IngestSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a bulk health-signal upload into the database.
+ *
+ * Records are parsed one at a time and written in fixed-size batches, each in
+ * its own transaction. The request body is only read while the current batch
+ * has room, so a slow database throttles the client through the connection
+ * instead of buffering the upload in memory. Batches already committed stay
+ * when a malformed body stops the parse; the summary's stoppedAtLine says so.
+ */
+@Service
+@Slf4j
+public class HealthSignalIngestService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final HealthSignalService healthSignalService;
+    private final BulkRecordParser parser;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public HealthSignalIngestService(HealthSignalService healthSignalService,
+                                     BulkRecordParser parser,
+                                     Validator validator,
+                                     EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.ingest.batch-size:500}") int batchSize) {
+        this.healthSignalService = healthSignalService;
+        this.parser = parser;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public IngestSummary ingest(InputStream body, BulkRecordParser.Format format) throws IOException {
+        long started = System.nanoTime();
+        Ingest ingest = new Ingest();
+        Long stoppedAtLine = null;
+        try {
+            parser.parse(body, format, HealthSignalRequest.class, ingest);
+        } catch (CsvReader.MalformedCsvException e) {
+            // Rows before the damage are still written
+            ingest.reject(e.getLine(), e.getMessage());
+            stoppedAtLine = e.getLine();
+        }
+        ingest.flush();
+
+        IngestSummary summary = IngestSummary.builder()
+                .received(ingest.accepted + ingest.rejected)
+                .accepted(ingest.accepted)
+                .rejected(ingest.rejected)
+                .batches(ingest.batches)
+                .durationMs((System.nanoTime() - started) / 1_000_000)
+                .errors(ingest.errors)
+                .errorsTruncated(ingest.rejected > ingest.errors.size())
+                .stoppedAtLine(stoppedAtLine)
+                .build();
+        if (stoppedAtLine != null) {
+            log.warn("Health signal ingest ({}) stopped at line {}: {} accepted before it", format, stoppedAtLine,
+                    summary.getAccepted());
+        }
+        log.info("Health signal ingest ({}): {} accepted, {} rejected in {} batches, {} ms",
+                format, summary.getAccepted(), summary.getRejected(), summary.getBatches(), summary.getDurationMs());
+        return summary;
+    }
+
+    /**
+     * Per-upload state: the pending batch, its source lines and running counts.
+     */
+    private final class Ingest implements BulkRecordParser.RecordSink<HealthSignalRequest> {
+
+        private final List<HealthSignalRequest> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchLines = new ArrayList<>(batchSize);
+        private final List<IngestSummary.RowError> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        private int batches;
+
+        @Override
+        public void accept(long line, HealthSignalRequest request) {
+            Set<ConstraintViolation<HealthSignalRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            batch.add(request);
+            batchLines.add(line);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new IngestSummary.RowError(line, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    healthSignalService.createHealthSignals(batch);
+                    // Keep the persistence context (shared for the whole request) from growing
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                accepted += batch.size();
+            } catch (RuntimeException e) {
+                log.warn("Health signal ingest batch starting at line {} failed: {}", batchLines.get(0), e.getMessage());
+                for (Long line : batchLines) {
+                    reject(line, "batch write failed: " + e.getMessage());
+                }
+            }
+            batches++;
+            batch.clear();
+            batchLines.clear();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.HealthSignalTimeSeriesResponse;
+import com.healthmap.event.HealthSignalChangedEvent;
+import com.healthmap.event.HealthSignalSnapshot;
+import com.healthmap.model.HealthSignal.SignalLevel;
+import com.healthmap.model.HealthSignal.SignalType;
+import com.healthmap.repository.HealthSignalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Daily health signal counts keyed by (areaId, signalDate, signalType,
+ * signalLevel), behind /api/health-signals/timeseries.
+ *
+ * Each area has a date-ordered map of count vectors (one slot per type and
+ * level), and a second map holds the sum over all areas, so a series is a
+ * range scan over at most one entry per day whatever the number of raw
+ * signals. Rebuilt from a GROUP BY over the signals table at startup (or on
+ * demand) and adjusted from committed {@link HealthSignalChangedEvent}s.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HealthSignalRollupStore implements SmartInitializingSingleton {
+
+    public enum Bucket {
+        DAY, WEEK;
+
+        public static Bucket parse(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+
+        LocalDate start(LocalDate date) {
+            return this == DAY ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        LocalDate next(LocalDate start) {
+            return this == DAY ? start.plusDays(1) : start.plusWeeks(1);
+        }
+    }
+
+    private static final SignalType[] TYPES = SignalType.values();
+    private static final SignalLevel[] LEVELS = SignalLevel.values();
+    private static final int SLOTS = TYPES.length * LEVELS.length;
+
+    private final HealthSignalRepository healthSignalRepository;
+
+    private final Map<String, TreeMap<LocalDate, long[]>> byArea = new HashMap<>();
+    private final TreeMap<LocalDate, long[]> allAreas = new TreeMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Recomputes all rollups from the raw signals.
+     */
+    public synchronized void rebuild() {
+        byArea.clear();
+        allAreas.clear();
+        List<Object[]> rows = healthSignalRepository.summarizeByAreaDateTypeAndLevel();
+        for (Object[] row : rows) {
+            add((String) row[0], (LocalDate) row[1], (SignalType) row[2], (SignalLevel) row[3],
+                    ((Number) row[4]).longValue());
+        }
+        log.info("Health signal rollups rebuilt: {} areas, {} days", byArea.size(), allAreas.size());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onHealthSignalChanged(HealthSignalChangedEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(event.after(), 1);
+        }
+    }
+
+    /**
+     * Counts per bucket for [from, to], for one area or (areaId null) all areas.
+     */
+    public synchronized HealthSignalTimeSeriesResponse timeSeries(String areaId, LocalDate from, LocalDate to,
+                                                                  Bucket bucket) {
+        NavigableMap<LocalDate, long[]> days = areaId == null ? allAreas : byArea.get(areaId);
+        List<HealthSignalTimeSeriesResponse.Point> points = new ArrayList<>();
+        for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+            LocalDate end = bucket.next(start);
+            long[] counts = new long[SLOTS];
+            if (days != null) {
+                // Clip the first and last weeks to the requested range
+                LocalDate first = start.isBefore(from) ? from : start;
+                LocalDate last = end.isAfter(to) ? to.plusDays(1) : end;
+                for (long[] day : days.subMap(first, true, last, false).values()) {
+                    for (int i = 0; i < SLOTS; i++) {
+                        counts[i] += day[i];
+                    }
+                }
+            }
+            points.add(toPoint(start, counts));
+        }
+        return HealthSignalTimeSeriesResponse.builder()
+                .areaId(areaId)
+                .bucket(bucket.name().toLowerCase(Locale.ROOT))
+                .from(from)
+                .to(to)
+                .points(points)
+                .build();
+    }
+
+    private static HealthSignalTimeSeriesResponse.Point toPoint(LocalDate start, long[] counts) {
+        Map<String, Map<String, Long>> byType = new LinkedHashMap<>();
+        long total = 0;
+        long elevated = 0;
+        for (SignalType type : TYPES) {
+            Map<String, Long> byLevel = new LinkedHashMap<>();
+            for (SignalLevel level : LEVELS) {
+                long count = counts[slot(type, level)];
+                byLevel.put(level.name(), count);
+                total += count;
+                if (level == SignalLevel.ELEVATED) {
+                    elevated += count;
+                }
+            }
+            byType.put(type.name(), byLevel);
+        }
+        return HealthSignalTimeSeriesResponse.Point.builder()
+                .start(start)
+                .total(total)
+                .elevated(elevated)
+                .counts(byType)
+                .build();
+    }
+
+    private void apply(HealthSignalSnapshot s, int sign) {
+        add(s.areaId(), s.signalDate(), s.signalType(), s.signalLevel(), sign);
+    }
+
+    private void add(String areaId, LocalDate date, SignalType type, SignalLevel level, long count) {
+        int slot = slot(type, level);
+        TreeMap<LocalDate, long[]> days = byArea.computeIfAbsent(areaId, k -> new TreeMap<>());
+        addTo(days, date, slot, count);
+        if (days.isEmpty()) {
+            byArea.remove(areaId);
+        }
+        addTo(allAreas, date, slot, count);
+    }
+
+    private static void addTo(TreeMap<LocalDate, long[]> days, LocalDate date, int slot, long count) {
+        long[] counts = days.computeIfAbsent(date, d -> new long[SLOTS]);
+        counts[slot] += count;
+        if (isEmpty(counts)) {
+            days.remove(date);
+        }
+    }
+
+    private static boolean isEmpty(long[] counts) {
+        for (long count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slot(SignalType type, SignalLevel level) {
+        return type.ordinal() * LEVELS.length + level.ordinal();
+    }
+}
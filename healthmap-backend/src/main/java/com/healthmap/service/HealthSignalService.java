@@ -1,12 +1,19 @@
 package com.healthmap.service;
 
+import com.healthmap.dto.ChangesResponse;
 import com.healthmap.dto.HealthSignalRequest;
 import com.healthmap.dto.HealthSignalResponse;
 import com.healthmap.dto.HealthSignalStatsResponse;
+import com.healthmap.dto.PageResponse;
+import com.healthmap.event.HealthSignalChangedEvent;
+import com.healthmap.event.HealthSignalSnapshot;
 import com.healthmap.model.HealthSignal;
+import com.healthmap.model.Tombstone;
 import com.healthmap.repository.HealthSignalRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,13 +27,36 @@ import java.util.stream.Collectors;
 public class HealthSignalService {
 
     private final HealthSignalRepository healthSignalRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeFeed changeFeed;
 
     @Transactional
     public HealthSignalResponse createHealthSignal(HealthSignalRequest request) {
-        log.info("Creating health signal for area: {}, type: {}", 
+        log.debug("Creating health signal for area: {}, type: {}",
                 request.getAreaName(), request.getSignalType());
 
-        HealthSignal signal = HealthSignal.builder()
+        HealthSignal saved = healthSignalRepository.save(toEntity(request));
+        eventPublisher.publishEvent(HealthSignalChangedEvent.created(HealthSignalSnapshot.of(saved)));
+        log.debug("Health signal created with ID: {}", saved.getId());
+
+        return HealthSignalResponse.fromEntity(saved);
+    }
+
+    /**
+     * Inserts one ingest batch; the caller owns the transaction.
+     */
+    public void createHealthSignals(List<HealthSignalRequest> requests) {
+        List<HealthSignal> signals = new ArrayList<>(requests.size());
+        for (HealthSignalRequest request : requests) {
+            signals.add(toEntity(request));
+        }
+        for (HealthSignal saved : healthSignalRepository.saveAll(signals)) {
+            eventPublisher.publishEvent(HealthSignalChangedEvent.created(HealthSignalSnapshot.of(saved)));
+        }
+    }
+
+    private HealthSignal toEntity(HealthSignalRequest request) {
+        return HealthSignal.builder()
                 .areaId(request.getAreaId())
                 .areaName(request.getAreaName())
                 .signalDate(request.getSignalDate() != null ? request.getSignalDate() : LocalDate.now())
@@ -38,24 +68,47 @@ public class HealthSignalService {
                 .longitude(request.getLongitude())
                 .reportedBy(request.getReportedBy())
                 .build();
-
-        HealthSignal saved = healthSignalRepository.save(signal);
-        log.info("Health signal created with ID: {}", saved.getId());
-
-        return HealthSignalResponse.fromEntity(saved);
     }
 
-    public List<HealthSignalResponse> getAllHealthSignals() {
-        return healthSignalRepository.findAll().stream()
-                .map(HealthSignalResponse::fromEntity)
-                .collect(Collectors.toList());
+    /**
+     * Most recent signal date first, keyed on (signalDate, id).
+     */
+    public PageResponse<HealthSignalResponse> getAllHealthSignals(String cursor, int limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<HealthSignal> rows;
+        if (cursor == null) {
+            rows = healthSignalRepository.findPageBySignalDate(fetch);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = healthSignalRepository.findPageBySignalDateAfter(position.dateKey(), position.id(), fetch);
+        }
+        return PageResponse.of(rows, pageSize, HealthSignalResponse::fromEntity,
+                s -> PageCursor.encode(s.getSignalDate(), s.getId()));
     }
 
-    public List<HealthSignalResponse> getRecentHealthSignals(int days) {
+    public PageResponse<HealthSignalResponse> getRecentHealthSignals(int days, String cursor, int limit) {
         LocalDate startDate = LocalDate.now().minusDays(days);
-        return healthSignalRepository.findRecentSignals(startDate).stream()
-                .map(HealthSignalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int pageSize = PageCursor.clampLimit(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<HealthSignal> rows;
+        if (cursor == null) {
+            rows = healthSignalRepository.findRecentPage(startDate, fetch);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = healthSignalRepository.findRecentPageAfter(
+                    startDate, position.dateKey(), position.id(), fetch);
+        }
+        return PageResponse.of(rows, pageSize, HealthSignalResponse::fromEntity,
+                s -> PageCursor.encode(s.getSignalDate(), s.getId()));
+    }
+
+    /**
+     * Signals written and deleted since a sync token, in change order.
+     */
+    public ChangesResponse<HealthSignalResponse> getChanges(String since, int limit) {
+        return changeFeed.changes(since, limit, Tombstone.EntityType.HEALTH_SIGNAL,
+                healthSignalRepository::findChangedAfter, HealthSignal::getId, HealthSignalResponse::fromEntity);
     }
 
     public List<HealthSignalResponse> getHealthSignalsByArea(String areaId) {
@@ -151,6 +204,10 @@ public class HealthSignalService {
     @Transactional
     public void deleteHealthSignal(Long id) {
         log.info("Deleting health signal with ID: {}", id);
-        healthSignalRepository.deleteById(id);
+        healthSignalRepository.findById(id).ifPresent(signal -> {
+            healthSignalRepository.delete(signal);
+            changeFeed.recordDeletion(Tombstone.EntityType.HEALTH_SIGNAL, id);
+            eventPublisher.publishEvent(HealthSignalChangedEvent.deleted(HealthSignalSnapshot.of(signal)));
+        });
     }
 }
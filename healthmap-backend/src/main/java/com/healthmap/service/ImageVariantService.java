@@ -0,0 +1,395 @@
+package com.healthmap.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resized, recompressed JPEG variants of uploaded photos, generated in the
+ * background so previews do not download the full-resolution original.
+ *
+ * Uploads are queued for all variants as soon as they are stored; files
+ * uploaded earlier are queued when a variant is asked for before it exists,
+ * and callers serve the original meanwhile. Work runs on
+ * {@code app.files.variants.threads} workers behind a queue of
+ * {@code app.files.variants.queue-size} files; when the queue is full the
+ * file is simply left for a later request to queue again. Each source is
+ * decoded once, subsampled to about twice the largest variant, turned
+ * upright by its EXIF Orientation (variants carry no metadata, so a sideways
+ * phone photo would otherwise stay sideways), and the smaller variants are
+ * scaled down from the larger ones. Variants belong to
+ * a {@link ContentStore} blob, so every name for the same content shares
+ * them; they live under {@code <upload-dir>/variants/<variant>/<ab>/} and are
+ * written atomically. Finished variants are moved in, and deleted, under the
+ * blob's lock in the store, so none outlives a blob deleted mid-generation.
+ */
+@Service
+@Slf4j
+public class ImageVariantService implements SmartLifecycle {
+
+    public enum Variant {
+        THUMB(256, 0.7f),
+        MEDIUM(1024, 0.8f);
+
+        private final int maxEdge;
+        private final float quality;
+
+        Variant(int maxEdge, float quality) {
+            this.maxEdge = maxEdge;
+            this.quality = quality;
+        }
+
+        public static Variant parse(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+
+        String directory() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final String VARIANTS_DIR = "variants";
+    private static final String VARIANT_SUFFIX = ".jpg";
+
+    // Largest first, so each variant is scaled from the previous one
+    private static final Variant[] BY_SIZE = Arrays.stream(Variant.values())
+            .sorted(Comparator.comparingInt((Variant v) -> v.maxEdge).reversed())
+            .toArray(Variant[]::new);
+
+    private final ContentStore contentStore;
+    private final Path uploadDir;
+    private final int threads;
+    private final int queueSize;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private ThreadPoolExecutor workers;
+
+    public ImageVariantService(ContentStore contentStore,
+                               @Value("${file.upload-dir}") String uploadDir,
+                               @Value("${app.files.variants.threads:2}") int threads,
+                               @Value("${app.files.variants.queue-size:200}") int queueSize) {
+        this.contentStore = contentStore;
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.threads = Math.max(1, threads);
+        this.queueSize = Math.max(1, queueSize);
+    }
+
+    /**
+     * Where the variant of a stored blob is, or will be once generated.
+     */
+    public Path variantPath(String hash, Variant variant) {
+        return uploadDir.resolve(VARIANTS_DIR).resolve(variant.directory())
+                .resolve(hash.substring(0, 2)).resolve(hash + VARIANT_SUFFIX);
+    }
+
+    /**
+     * Queues generation of every variant of a stored blob, unless it is
+     * already queued or could not be decoded before.
+     */
+    public void schedule(String hash) {
+        if (!running || failed.contains(hash) || !pending.add(hash)) {
+            return;
+        }
+        try {
+            workers.execute(() -> generate(hash));
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            log.debug("Variant queue full; {} is served as the original for now", hash);
+        }
+    }
+
+    /**
+     * Removes the variants of a blob that has been deleted; the store calls
+     * this under the blob's lock.
+     */
+    public void delete(String hash) throws IOException {
+        failed.remove(hash);
+        for (Variant variant : Variant.values()) {
+            Files.deleteIfExists(variantPath(hash, variant));
+        }
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger workerNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "image-variant-" + workerNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        workers.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void generate(String hash) {
+        long started = System.nanoTime();
+        try {
+            Path source = contentStore.blobPath(hash);
+            BufferedImage image = Files.isRegularFile(source) ? read(source, BY_SIZE[0].maxEdge) : null;
+            if (image == null) {
+                failed.add(hash);
+                log.warn("No image variants for {}: not a readable image", hash);
+                return;
+            }
+            for (Variant variant : BY_SIZE) {
+                image = scale(image, variant.maxEdge);
+                Path target = variantPath(hash, variant);
+                Path tmp = write(image, variant.quality, target);
+                boolean kept = contentStore.ifBlobExists(hash, h ->
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING));
+                if (!kept) {
+                    Files.deleteIfExists(tmp);
+                    log.debug("{} was deleted while its variants were generated", hash);
+                    return;
+                }
+            }
+            log.debug("Image variants for {} written in {} ms", hash, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            failed.add(hash);
+            log.warn("Could not generate image variants for {}: {}", hash, e.getMessage());
+        } finally {
+            pending.remove(hash);
+        }
+    }
+
+    /**
+     * Decodes an image, skipping source pixels when it is more than twice
+     * the given edge, which saves most of the decode time and memory for
+     * camera-sized photos, and turns it the way its EXIF Orientation says.
+     */
+    private static BufferedImage read(Path source, int maxEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / (maxEdge * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return orient(reader.read(0, param), orientation(source));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * The EXIF Orientation (1 to 8) of a JPEG, from the first IFD of its APP1
+     * segment; 1 for other formats or when the tag is missing or malformed.
+     */
+    private static int orientation(Path source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // Metadata segments all come before the scan
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                int orientation = exifOrientation(segment);
+                // APP1 also carries XMP; keep looking for the EXIF one
+                if (orientation > 0) {
+                    return orientation;
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        }
+    }
+
+    private static int exifOrientation(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i'
+                || segment[3] != 'f' || segment[4] != 0 || segment[5] != 0) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        short byteOrder = tiff.getShort(0);
+        if (byteOrder == 0x4949) {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (byteOrder != 0x4D4D) {
+            return 0;
+        }
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd > tiff.limit() - 2) {
+            return 0;
+        }
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry > tiff.limit() - 12) {
+                return 0;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == 0x0112) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Applies an EXIF Orientation, so the image is stored the way it should
+     * be displayed; 5 to 8 swap width and height.
+     */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? height : width, swap ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            // Transparent areas become white, as in resize
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, oriented.getWidth(), oriented.getHeight());
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    /**
+     * Fits an image within maxEdge as opaque RGB, halving in bilinear steps
+     * while more than twice too large so every source pixel contributes.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (Math.max(width, height) <= maxEdge && image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        do {
+            int longest = Math.max(width, height);
+            double factor = longest > maxEdge * 2 ? 0.5 : Math.min(1.0, (double) maxEdge / longest);
+            width = Math.max(1, (int) Math.round(width * factor));
+            height = Math.max(1, (int) Math.round(height * factor));
+            image = resize(image, width, height);
+        } while (Math.max(width, height) > maxEdge);
+        return image;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha; transparent areas become white
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    /**
+     * Encodes an image next to target, returning the temporary file to move
+     * into place.
+     */
+    private static Path write(BufferedImage image, float quality, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        // A file is only ever generated by one worker at a time, so a fixed temporary name is safe
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        return tmp;
+    }
+}
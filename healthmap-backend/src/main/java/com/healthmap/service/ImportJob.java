@@ -0,0 +1,104 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.ImportJobResponse;
+import com.healthmap.dto.IngestSummary;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one dropped file. Counters are updated by the parse stage
+ * (parsed, rejected) and the write stage (accepted, rejected) concurrently.
+ */
+class ImportJob {
+
+    enum Status {
+        // PARTIAL: the file could not be read to the end, but rows before that were written
+        QUEUED, RUNNING, COMPLETED, PARTIAL, FAILED
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    final Path file;
+    final DropDirectoryImporter.RecordType recordType;
+    final long fileSize;
+    final AtomicLong parsed = new AtomicLong();
+    final AtomicLong accepted = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+
+    private final List<IngestSummary.RowError> errors = new ArrayList<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile String message;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    ImportJob(Path file, DropDirectoryImporter.RecordType recordType, long fileSize) {
+        this.file = file;
+        this.recordType = recordType;
+        this.fileSize = fileSize;
+    }
+
+    void start() {
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void finish(Status outcome, String outcomeMessage) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        message = outcomeMessage;
+        status = outcome;
+    }
+
+    void reject(long line, String error) {
+        rejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new IngestSummary.RowError(line, error));
+            }
+        }
+    }
+
+    Status status() {
+        return status;
+    }
+
+    /**
+     * Rows written per second since the file was started.
+     */
+    double rowsPerSecond() {
+        if (startedNanos == 0) {
+            return 0.0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        double seconds = Math.max(1e-3, (end - startedNanos) / 1e9);
+        return Math.round(accepted.get() / seconds * 10.0) / 10.0;
+    }
+
+    ImportJobResponse toResponse() {
+        List<IngestSummary.RowError> errorsCopy;
+        synchronized (errors) {
+            errorsCopy = List.copyOf(errors);
+        }
+        return ImportJobResponse.builder()
+                .fileName(file.getFileName().toString())
+                .recordType(recordType.name())
+                .status(status.name())
+                .fileSizeBytes(fileSize)
+                .parsed(parsed.get())
+                .accepted(accepted.get())
+                .rejected(rejected.get())
+                .rowsPerSecond(rowsPerSecond())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .message(message)
+                .errors(errorsCopy)
+                .build();
+    }
+}
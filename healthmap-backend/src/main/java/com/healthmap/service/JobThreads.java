@@ -0,0 +1,45 @@
+package com.healthmap.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for background jobs (imports, rescoring). They are virtual when
+ * {@code spring.threads.virtual.enabled} is set, as request handling is,
+ * and platform threads otherwise. The jobs bound their own concurrency with
+ * fixed pools and queues, so they hold the same number of database
+ * connections in either mode.
+ */
+@Component
+public class JobThreads {
+
+    private final boolean virtual;
+
+    public JobThreads(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Threads that all have the given name.
+     */
+    public ThreadFactory named(String name) {
+        return builder().name(name).factory();
+    }
+
+    /**
+     * Threads named prefix1, prefix2, ...
+     */
+    public ThreadFactory numbered(String prefix) {
+        return builder().name(prefix, 1).factory();
+    }
+
+    private Thread.Builder builder() {
+        return virtual ? Thread.ofVirtual() : Thread.ofPlatform();
+    }
+}
@@ -0,0 +1,70 @@
+package com.healthmap.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last row on a page,
+ * base64url encoded. The next page seeks past this position instead of
+ * using OFFSET, so its cost does not grow with the page number.
+ */
+public record PageCursor(String key, long id) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    private static final char SEPARATOR = '|';
+
+    public static String encode(Object key, Long id) {
+        String raw = key + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + token);
+        }
+    }
+
+    public long longKey() {
+        return parseKey(Long::valueOf);
+    }
+
+    public int intKey() {
+        return parseKey(Integer::valueOf);
+    }
+
+    public LocalDate dateKey() {
+        return parseKey(LocalDate::parse);
+    }
+
+    public LocalDateTime dateTimeKey() {
+        return parseKey(LocalDateTime::parse);
+    }
+
+    private <T> T parseKey(Function<String, T> parser) {
+        try {
+            return parser.apply(key);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor key: " + key);
+        }
+    }
+
+    public static int clampLimit(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.healthmap.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Folds rows delivered one at a time by a single reader (typically a
+ * repository cursor) across the fork-join pool.
+ *
+ * Rows are cut into fixed-size chunks; each chunk is folded into its own
+ * partial result on a pool thread, and partials are merged by the reader as
+ * they complete. Partials are thread-confined until merged, so no locking is
+ * involved, and at most a couple of chunks per core are in flight, so memory
+ * stays bounded however many rows the reader produces.
+ */
+public final class ParallelFold<T, P> implements Consumer<T> {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Supplier<P> partialFactory;
+    private final BiConsumer<P, T> accumulator;
+    private final BinaryOperator<P> merger;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final Deque<ForkJoinTask<P>> inFlight = new ArrayDeque<>();
+
+    private List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+    private P result;
+
+    public ParallelFold(Supplier<P> partialFactory, BiConsumer<P, T> accumulator, BinaryOperator<P> merger) {
+        this.partialFactory = partialFactory;
+        this.accumulator = accumulator;
+        this.merger = merger;
+        this.pool = ForkJoinPool.commonPool();
+        this.maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        this.result = partialFactory.get();
+    }
+
+    @Override
+    public void accept(T row) {
+        chunk.add(row);
+        if (chunk.size() == CHUNK_SIZE) {
+            submit(chunk);
+            chunk = new ArrayList<>(CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Folds the remaining rows and returns the merged result.
+     */
+    public P finish() {
+        if (!chunk.isEmpty()) {
+            List<T> last = chunk;
+            chunk = new ArrayList<>(0);
+            // Small enough to fold here rather than round-trip through the pool
+            result = merger.apply(result, fold(last));
+        }
+        while (!inFlight.isEmpty()) {
+            result = merger.apply(result, inFlight.removeFirst().join());
+        }
+        return result;
+    }
+
+    private void submit(List<T> rows) {
+        if (inFlight.size() >= maxInFlight) {
+            result = merger.apply(result, inFlight.removeFirst().join());
+        }
+        inFlight.addLast(pool.submit(() -> fold(rows)));
+    }
+
+    private P fold(List<T> rows) {
+        P partial = partialFactory.get();
+        for (T row : rows) {
+            accumulator.accept(partial, row);
+        }
+        return partial;
+    }
+}
@@ -0,0 +1,90 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.RescoreJobResponse;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one rescoring pass. Counters are updated by the chunk workers
+ * concurrently.
+ */
+class RescoreJob {
+
+    enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    final String reason;
+    final AtomicLong processed = new AtomicLong();
+    final AtomicLong updated = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelled;
+    private volatile long total;
+    private volatile String message;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    RescoreJob(String reason) {
+        this.reason = reason;
+    }
+
+    void start(long rows) {
+        total = rows;
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void finish(Status outcome, String outcomeMessage) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        message = outcomeMessage;
+        status = outcome;
+    }
+
+    /**
+     * Asks the pass to stop after the chunks already in flight; used when
+     * newer rules supersede the ones it is applying.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * Rows checked per second since the pass was started.
+     */
+    double rowsPerSecond() {
+        if (startedNanos == 0) {
+            return 0.0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        double seconds = Math.max(1e-3, (end - startedNanos) / 1e9);
+        return Math.round(processed.get() / seconds * 10.0) / 10.0;
+    }
+
+    RescoreJobResponse toResponse() {
+        return RescoreJobResponse.builder()
+                .reason(reason)
+                .status(status.name())
+                .total(total)
+                .processed(processed.get())
+                .updated(updated.get())
+                .rowsPerSecond(rowsPerSecond())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,210 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.RescoreJobResponse;
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.model.Assessment;
+import com.healthmap.repository.AssessmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rescores every assessment under the current {@link RiskCalculator} rules in
+ * the background, after a rule change.
+ *
+ * A coordinator thread walks the table by id in keyset order and cuts it into
+ * chunks of {@code app.risk.rescore.chunk-size} ids; a pool of
+ * {@code app.risk.rescore.threads} workers rescores the chunks, at most two
+ * per worker in flight. Each chunk is one transaction: its rows are locked,
+ * rescored, and only those whose scores changed are written (as one JDBC
+ * batch) and published as update events, so the in-memory views follow along
+ * chunk by chunk. Readers are never blocked, since the database serves them
+ * the last committed version of a locked row; concurrent writes to a row wait
+ * only for its chunk. Starting a pass cancels the one in progress, whose
+ * remaining rows the new pass covers anyway.
+ */
+@Service
+@Slf4j
+public class RescoringService implements SmartLifecycle {
+
+    private static final int PROGRESS_LOG_CHUNKS = 20;
+
+    private final AssessmentRepository assessmentRepository;
+    private final RiskCalculator riskCalculator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JobThreads jobThreads;
+    private final int threads;
+    private final int chunkSize;
+
+    private volatile RescoreJob current;
+    private volatile boolean running;
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+
+    public RescoringService(AssessmentRepository assessmentRepository,
+                            RiskCalculator riskCalculator,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            JobThreads jobThreads,
+                            @Value("${app.risk.rescore.threads:2}") int threads,
+                            @Value("${app.risk.rescore.chunk-size:500}") int chunkSize) {
+        this.assessmentRepository = assessmentRepository;
+        this.riskCalculator = riskCalculator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobThreads = jobThreads;
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * The pass in progress, or the last one to finish; null before the first.
+     */
+    public RescoreJobResponse currentJob() {
+        RescoreJob job = current;
+        return job == null ? null : job.toResponse();
+    }
+
+    /**
+     * Queues a full pass, cancelling the one in progress.
+     */
+    public synchronized RescoreJobResponse rescoreAll(String reason) {
+        if (!running) {
+            throw new IllegalStateException("Rescoring service is not running");
+        }
+        RescoreJob previous = current;
+        if (previous != null) {
+            previous.cancel();
+        }
+        RescoreJob job = new RescoreJob(reason);
+        current = job;
+        coordinator.execute(() -> run(job));
+        return job.toResponse();
+    }
+
+    @Override
+    public void start() {
+        coordinator = Executors.newSingleThreadExecutor(jobThreads.named("rescore"));
+        workers = Executors.newFixedThreadPool(threads, jobThreads.numbered("rescore-worker-"));
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        RescoreJob job = current;
+        if (job != null) {
+            job.cancel();
+        }
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run(RescoreJob job) {
+        if (job.isCancelled()) {
+            job.finish(RescoreJob.Status.CANCELLED, "superseded before it started");
+            return;
+        }
+        job.start(assessmentRepository.count());
+        log.info("Rescoring {} assessments ({})", job.total(), job.reason);
+
+        int maxInFlight = threads * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        int chunks = 0;
+        long after = 0;
+        try {
+            while (!job.isCancelled() && failure.get() == null) {
+                List<Long> ids = assessmentRepository.findIdsAfter(after, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long fromId = ids.get(0);
+                long toId = ids.get(ids.size() - 1);
+                after = toId;
+
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        if (!job.isCancelled() && failure.get() == null) {
+                            rescore(job, fromId, toId);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (++chunks % PROGRESS_LOG_CHUNKS == 0) {
+                    log.info("Rescoring: {}/{} checked, {} updated, {} rows/s",
+                            job.processed.get(), job.total(), job.updated.get(), job.rowsPerSecond());
+                }
+            }
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            job.finish(RescoreJob.Status.CANCELLED, "interrupted by shutdown");
+            return;
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+
+        if (failure.get() != null) {
+            log.error("Rescoring failed after {} rows", job.processed.get(), failure.get());
+            job.finish(RescoreJob.Status.FAILED, failure.get().getMessage());
+        } else if (job.isCancelled()) {
+            log.info("Rescoring cancelled after {} rows, {} updated", job.processed.get(), job.updated.get());
+            job.finish(RescoreJob.Status.CANCELLED, "superseded by newer rules");
+        } else {
+            job.finish(RescoreJob.Status.COMPLETED, null);
+            log.info("Rescored {} assessments: {} updated, {} rows/s",
+                    job.processed.get(), job.updated.get(), job.rowsPerSecond());
+        }
+    }
+
+    private void rescore(RescoreJob job, long fromId, long toId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Assessment> rows = assessmentRepository.findRangeForUpdate(fromId, toId);
+            List<Assessment> changed = new ArrayList<>();
+            List<AssessmentSnapshot> befores = new ArrayList<>();
+            for (Assessment assessment : rows) {
+                AssessmentSnapshot before = AssessmentSnapshot.of(assessment);
+                riskCalculator.calculateRisks(assessment);
+                // Unchanged rows stay clean, so only changed ones are flushed
+                if (!AssessmentSnapshot.of(assessment).equals(before)) {
+                    changed.add(assessment);
+                    befores.add(before);
+                }
+            }
+            // One batched flush stamps the change sequence numbers the after snapshots carry
+            assessmentRepository.flush();
+            for (int i = 0; i < changed.size(); i++) {
+                eventPublisher.publishEvent(AssessmentChangedEvent.updated(befores.get(i),
+                        AssessmentSnapshot.of(changed.get(i))));
+            }
+            job.processed.addAndGet(rows.size());
+            job.updated.addAndGet(changed.size());
+        });
+    }
+}
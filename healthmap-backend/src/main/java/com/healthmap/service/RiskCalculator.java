@@ -5,122 +5,220 @@ import com.healthmap.model.Assessment.BuildingAge;
 import com.healthmap.model.Assessment.Priority;
 import org.springframework.stereotype.Service;
 
+/**
+ * Scores assessments from their site observations. The rules below are
+ * evaluated for every combination of inputs whenever a {@link RiskRules} set
+ * is applied; scoring and recommendation lookups afterwards index a
+ * precomputed table with a bit-packed key and allocate nothing. Applying new
+ * rules swaps the whole score table at once, so each assessment is scored
+ * entirely under one rule set.
+ *
+ * Score key (7 bits): building age (2 bits, 0 = not given, else ordinal + 1),
+ * then dustPresent, oldMaterials, nearPopulation, sewageVisible, standingWater.
+ * Recommendation key (6 bits): priority ordinal (2 bits), asbestos risk >= 50,
+ * water risk >= 50, sewageVisible, nearPopulation. Recommendations are keyed
+ * by the stored scores rather than the inputs, so rows scored elsewhere (seed
+ * data, earlier rules) still get text that matches what they show; they do
+ * not depend on the configurable rules.
+ */
 @Service
 public class RiskCalculator {
 
+    private record Score(int asbestosRisk, int waterRisk, int overallRisk, Priority priority, String materialType) {
+    }
+
+    private static final int AGE_BITS = 2;
+    private static final int SCORE_KEYS = 1 << (AGE_BITS + 5);
+    private static final int RECOMMENDATION_KEYS = 1 << 6;
+    private static final BuildingAge[] BUILDING_AGES = BuildingAge.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private record ScoreTable(RiskRules rules, Score[] scores) {
+    }
+
+    private final String[] recommendations = new String[RECOMMENDATION_KEYS];
+    private volatile ScoreTable table;
+
+    public RiskCalculator() {
+        this(RiskRules.DEFAULTS);
+    }
+
+    public RiskCalculator(RiskRules rules) {
+        apply(rules);
+        for (int key = 0; key < RECOMMENDATION_KEYS; key++) {
+            recommendations[key] = recommendation(PRIORITIES[key & 3],
+                    bit(key, 2), bit(key, 3), bit(key, 4), bit(key, 5)).intern();
+        }
+    }
+
+    public RiskRules rules() {
+        return table.rules();
+    }
+
+    /**
+     * Rebuilds the score table for the given rules and makes it current.
+     */
+    public void apply(RiskRules rules) {
+        rules.validate();
+        Score[] scores = new Score[SCORE_KEYS];
+        for (int key = 0; key < SCORE_KEYS; key++) {
+            int age = key & ((1 << AGE_BITS) - 1);
+            scores[key] = score(rules, age == 0 ? null : BUILDING_AGES[age - 1],
+                    bit(key, AGE_BITS), bit(key, AGE_BITS + 1), bit(key, AGE_BITS + 2),
+                    bit(key, AGE_BITS + 3), bit(key, AGE_BITS + 4));
+        }
+        table = new ScoreTable(rules, scores);
+    }
+
     public void calculateRisks(Assessment assessment) {
-        int asbestosRisk = calculateAsbestosRisk(assessment);
-        int waterRisk = calculateWaterRisk(assessment);
-        int overallRisk = calculateOverallRisk(asbestosRisk, waterRisk);
-        Priority priority = determinePriority(overallRisk);
-        String materialType = predictMaterialType(assessment);
+        Score score = table.scores()[scoreKey(assessment)];
+        assessment.setAsbestosRisk(score.asbestosRisk());
+        assessment.setWaterRisk(score.waterRisk());
+        assessment.setOverallRisk(score.overallRisk());
+        assessment.setPriority(score.priority());
+        assessment.setMaterialType(score.materialType());
+    }
 
-        assessment.setAsbestosRisk(asbestosRisk);
-        assessment.setWaterRisk(waterRisk);
-        assessment.setOverallRisk(overallRisk);
-        assessment.setPriority(priority);
-        assessment.setMaterialType(materialType);
+    public String generateRecommendation(Assessment assessment) {
+        int key = assessment.getPriority().ordinal()
+                | flag(assessment.getAsbestosRisk() >= 50) << 2
+                | flag(assessment.getWaterRisk() >= 50) << 3
+                | flag(Boolean.TRUE.equals(assessment.getSewageVisible())) << 4
+                | flag(Boolean.TRUE.equals(assessment.getNearPopulation())) << 5;
+        return recommendations[key];
     }
 
-    private int calculateAsbestosRisk(Assessment assessment) {
+    private static int scoreKey(Assessment assessment) {
+        BuildingAge age = assessment.getBuildingAge();
+        return (age == null ? 0 : age.ordinal() + 1)
+                | flag(Boolean.TRUE.equals(assessment.getDustPresent())) << AGE_BITS
+                | flag(Boolean.TRUE.equals(assessment.getOldMaterials())) << (AGE_BITS + 1)
+                | flag(Boolean.TRUE.equals(assessment.getNearPopulation())) << (AGE_BITS + 2)
+                | flag(Boolean.TRUE.equals(assessment.getSewageVisible())) << (AGE_BITS + 3)
+                | flag(Boolean.TRUE.equals(assessment.getStandingWater())) << (AGE_BITS + 4);
+    }
+
+    private static int flag(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    private static boolean bit(int key, int index) {
+        return (key >>> index & 1) != 0;
+    }
+
+    // Rule set, evaluated only while building the tables
+
+    private static Score score(RiskRules rules, BuildingAge buildingAge, boolean dustPresent,
+                               boolean oldMaterials, boolean nearPopulation, boolean sewageVisible,
+                               boolean standingWater) {
+        int asbestosRisk = calculateAsbestosRisk(rules.asbestos(), buildingAge, dustPresent, oldMaterials,
+                nearPopulation);
+        int waterRisk = calculateWaterRisk(rules.water(), dustPresent, nearPopulation, sewageVisible,
+                standingWater);
+        int overallRisk = calculateOverallRisk(rules.weights(), asbestosRisk, waterRisk);
+        return new Score(asbestosRisk, waterRisk, overallRisk, determinePriority(rules.priority(), overallRisk),
+                predictMaterialType(buildingAge, oldMaterials));
+    }
+
+    private static int calculateAsbestosRisk(RiskRules.Asbestos points, BuildingAge buildingAge,
+                                             boolean dustPresent, boolean oldMaterials, boolean nearPopulation) {
         int risk = 0;
 
         // Building age contributes significantly
-        if (assessment.getBuildingAge() == BuildingAge.OLD) {
-            risk += 30;
-        } else if (assessment.getBuildingAge() == BuildingAge.UNKNOWN) {
-            risk += 15;
+        if (buildingAge == BuildingAge.OLD) {
+            risk += points.oldBuilding();
+        } else if (buildingAge == BuildingAge.UNKNOWN) {
+            risk += points.unknownBuildingAge();
         }
 
         // Visual indicators
-        if (Boolean.TRUE.equals(assessment.getOldMaterials())) {
-            risk += 25;
+        if (oldMaterials) {
+            risk += points.oldMaterials();
         }
-        if (Boolean.TRUE.equals(assessment.getDustPresent())) {
-            risk += 20;
+        if (dustPresent) {
+            risk += points.dustPresent();
         }
-        if (Boolean.TRUE.equals(assessment.getNearPopulation())) {
-            risk += 15;
+        if (nearPopulation) {
+            risk += points.nearPopulation();
         }
 
         return Math.min(risk, 100);
     }
 
-    private int calculateWaterRisk(Assessment assessment) {
+    private static int calculateWaterRisk(RiskRules.Water points, boolean dustPresent, boolean nearPopulation,
+                                          boolean sewageVisible, boolean standingWater) {
         int risk = 0;
 
         // Water contamination indicators
-        if (Boolean.TRUE.equals(assessment.getSewageVisible())) {
-            risk += 40;
+        if (sewageVisible) {
+            risk += points.sewageVisible();
         }
-        if (Boolean.TRUE.equals(assessment.getStandingWater())) {
-            risk += 30;
+        if (standingWater) {
+            risk += points.standingWater();
         }
-        if (Boolean.TRUE.equals(assessment.getNearPopulation())) {
-            risk += 20;
+        if (nearPopulation) {
+            risk += points.nearPopulation();
         }
 
         // Debris near water increases contamination risk
-        if (Boolean.TRUE.equals(assessment.getDustPresent()) &&
-            Boolean.TRUE.equals(assessment.getStandingWater())) {
-            risk += 10;
+        if (dustPresent && standingWater) {
+            risk += points.dustAndStandingWater();
         }
 
         return Math.min(risk, 100);
     }
 
-    private int calculateOverallRisk(int asbestosRisk, int waterRisk) {
-        // Weighted average: asbestos 60%, water 40%
-        return (int) Math.round(asbestosRisk * 0.6 + waterRisk * 0.4);
+    private static int calculateOverallRisk(RiskRules.Weights weights, int asbestosRisk, int waterRisk) {
+        return (int) Math.round(asbestosRisk * weights.asbestos() + waterRisk * weights.water());
     }
 
-    private Priority determinePriority(int overallRisk) {
-        if (overallRisk >= 70) {
+    private static Priority determinePriority(RiskRules.PriorityCutoffs cutoffs, int overallRisk) {
+        if (overallRisk >= cutoffs.critical()) {
             return Priority.CRITICAL;
-        } else if (overallRisk >= 50) {
+        } else if (overallRisk >= cutoffs.high()) {
             return Priority.HIGH;
-        } else if (overallRisk >= 30) {
+        } else if (overallRisk >= cutoffs.medium()) {
             return Priority.MEDIUM;
         } else {
             return Priority.LOW;
         }
     }
 
-    private String predictMaterialType(Assessment assessment) {
-        if (assessment.getBuildingAge() == BuildingAge.OLD &&
-            Boolean.TRUE.equals(assessment.getOldMaterials())) {
+    private static String predictMaterialType(BuildingAge buildingAge, boolean oldMaterials) {
+        if (buildingAge == BuildingAge.OLD && oldMaterials) {
             return "Asbestos-containing materials likely";
-        } else if (assessment.getBuildingAge() == BuildingAge.OLD) {
+        } else if (buildingAge == BuildingAge.OLD) {
             return "Old cement/concrete";
-        } else if (assessment.getBuildingAge() == BuildingAge.MODERN) {
+        } else if (buildingAge == BuildingAge.MODERN) {
             return "Modern concrete";
         } else {
             return "Mixed/Unknown materials";
         }
     }
 
-    public String generateRecommendation(Assessment assessment) {
+    private static String recommendation(Priority priority, boolean asbestosRisk, boolean waterRisk,
+                                         boolean sewageVisible, boolean nearPopulation) {
         StringBuilder recommendation = new StringBuilder();
 
-        if (assessment.getPriority() == Priority.CRITICAL) {
+        if (priority == Priority.CRITICAL) {
             recommendation.append("URGENT: Immediate intervention required. ");
-        } else if (assessment.getPriority() == Priority.HIGH) {
+        } else if (priority == Priority.HIGH) {
             recommendation.append("HIGH PRIORITY: Schedule intervention within 48 hours. ");
         }
 
-        if (assessment.getAsbestosRisk() >= 50) {
+        if (asbestosRisk) {
             recommendation.append("Asbestos testing recommended before any cleanup. ");
             recommendation.append("Use PPE and wet methods to suppress dust. ");
         }
 
-        if (assessment.getWaterRisk() >= 50) {
+        if (waterRisk) {
             recommendation.append("Water quality testing required. ");
-            if (Boolean.TRUE.equals(assessment.getSewageVisible())) {
+            if (sewageVisible) {
                 recommendation.append("Sewage remediation needed. ");
             }
         }
 
-        if (Boolean.TRUE.equals(assessment.getNearPopulation())) {
+        if (nearPopulation) {
             recommendation.append("Evacuate or restrict access to affected population. ");
         }
 
@@ -0,0 +1,65 @@
+package com.healthmap.service;
+
+/**
+ * Tunable weights and cutoffs used by {@link RiskCalculator}. Loaded from
+ * {@code app.risk.rules-file} by {@link RiskRulesLoader}; {@link #DEFAULTS}
+ * applies while no file is present.
+ */
+public record RiskRules(Asbestos asbestos, Water water, Weights weights, PriorityCutoffs priority) {
+
+    /** Points added to the asbestos score per observation (capped at 100). */
+    public record Asbestos(int oldBuilding, int unknownBuildingAge, int oldMaterials, int dustPresent,
+                           int nearPopulation) {
+    }
+
+    /** Points added to the water score per observation (capped at 100). */
+    public record Water(int sewageVisible, int standingWater, int nearPopulation, int dustAndStandingWater) {
+    }
+
+    /** Share of each score in the overall risk. */
+    public record Weights(double asbestos, double water) {
+    }
+
+    /** Lowest overall risk for each priority; anything below medium is LOW. */
+    public record PriorityCutoffs(int critical, int high, int medium) {
+    }
+
+    public static final RiskRules DEFAULTS = new RiskRules(
+            new Asbestos(30, 15, 25, 20, 15),
+            new Water(40, 30, 20, 10),
+            new Weights(0.6, 0.4),
+            new PriorityCutoffs(70, 50, 30));
+
+    /**
+     * Rejects rule sets that would produce scores outside 0-100 or
+     * overlapping priority bands.
+     */
+    public void validate() {
+        if (asbestos == null || water == null || weights == null || priority == null) {
+            throw new IllegalArgumentException("asbestos, water, weights and priority are all required");
+        }
+        points("asbestos.oldBuilding", asbestos.oldBuilding());
+        points("asbestos.unknownBuildingAge", asbestos.unknownBuildingAge());
+        points("asbestos.oldMaterials", asbestos.oldMaterials());
+        points("asbestos.dustPresent", asbestos.dustPresent());
+        points("asbestos.nearPopulation", asbestos.nearPopulation());
+        points("water.sewageVisible", water.sewageVisible());
+        points("water.standingWater", water.standingWater());
+        points("water.nearPopulation", water.nearPopulation());
+        points("water.dustAndStandingWater", water.dustAndStandingWater());
+        if (!(weights.asbestos() >= 0 && weights.water() >= 0)
+                || Math.abs(weights.asbestos() + weights.water() - 1.0) > 1e-6) {
+            throw new IllegalArgumentException("weights must be non-negative and sum to 1");
+        }
+        if (!(0 < priority.medium() && priority.medium() < priority.high()
+                && priority.high() < priority.critical() && priority.critical() <= 100)) {
+            throw new IllegalArgumentException("priority cutoffs must satisfy 0 < medium < high < critical <= 100");
+        }
+    }
+
+    private static void points(String name, int value) {
+        if (value < 0 || value > 100) {
+            throw new IllegalArgumentException(name + " must be between 0 and 100");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.healthmap.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.healthmap.dto.RiskRulesResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Loads {@link RiskRules} from {@code app.risk.rules-file} (JSON) and reloads
+ * them when the file changes. The file's directory is watched with a
+ * {@link WatchService}; bursts of events from an editor or an atomic replace
+ * are coalesced before the file is read. Rules that change what is in force
+ * are applied to the {@link RiskCalculator} and trigger a background
+ * {@link RescoringService} pass; a file that fails to parse or validate is
+ * reported and leaves the current rules in place. Deleting the file reverts
+ * to {@link RiskRules#DEFAULTS}.
+ */
+@Component
+@Slf4j
+public class RiskRulesLoader implements SmartLifecycle {
+
+    private static final long SETTLE_MILLIS = 300;
+    private static final String DEFAULTS_SOURCE = "defaults";
+
+    private final RiskCalculator riskCalculator;
+    private final RescoringService rescoringService;
+    private final ObjectReader reader;
+    private final Path file;
+
+    private volatile boolean running;
+    private volatile String source = DEFAULTS_SOURCE;
+    private volatile LocalDateTime loadedAt = LocalDateTime.now();
+    private volatile String lastError;
+    private Thread watcher;
+    private WatchService watchService;
+
+    public RiskRulesLoader(RiskCalculator riskCalculator,
+                           RescoringService rescoringService,
+                           ObjectMapper objectMapper,
+                           @Value("${app.risk.rules-file:./config/risk-rules.json}") String rulesFile) {
+        this.riskCalculator = riskCalculator;
+        this.rescoringService = rescoringService;
+        this.reader = objectMapper.readerFor(RiskRules.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+                        DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES,
+                        DeserializationFeature.FAIL_ON_MISSING_CREATOR_PROPERTIES);
+        this.file = Paths.get(rulesFile).toAbsolutePath().normalize();
+    }
+
+    public RiskRulesResponse status() {
+        return RiskRulesResponse.builder()
+                .rules(riskCalculator.rules())
+                .source(source)
+                .loadedAt(loadedAt)
+                .lastError(lastError)
+                .rescore(rescoringService.currentJob())
+                .build();
+    }
+
+    @Override
+    public void start() {
+        Path dir = file.getParent();
+        try {
+            Files.createDirectories(dir);
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not watch risk rules directory: " + dir, e);
+        }
+        running = true;
+        watcher = new Thread(this::runWatcher, "risk-rules-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+
+        if (Files.exists(file)) {
+            reload();
+        } else {
+            log.info("No risk rules at {}; using the built-in defaults", file);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Closing risk rules watch service: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runWatcher() {
+        try {
+            while (running) {
+                WatchKey key = watchService.take();
+                boolean touched = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        touched |= file.getFileName().equals(event.context());
+                    }
+                    key.reset();
+                    // Coalesce the rest of the burst (truncate + write, rename over, ...)
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+                if (touched) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private synchronized void reload() {
+        RiskRules rules;
+        String from;
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                rules = reader.readValue(in);
+                rules.validate();
+            } catch (JsonProcessingException e) {
+                reject(e.getOriginalMessage());
+                return;
+            } catch (IOException | IllegalArgumentException e) {
+                reject(e.getMessage());
+                return;
+            }
+            from = file.toString();
+        } else {
+            rules = RiskRules.DEFAULTS;
+            from = DEFAULTS_SOURCE;
+        }
+
+        lastError = null;
+        source = from;
+        loadedAt = LocalDateTime.now();
+        if (rules.equals(riskCalculator.rules())) {
+            log.info("Risk rules from {} are unchanged", from);
+            return;
+        }
+        riskCalculator.apply(rules);
+        log.info("Applied risk rules from {}", from);
+        rescoringService.rescoreAll("risk rules changed (" + from + ")");
+    }
+
+    private void reject(String error) {
+        lastError = error;
+        log.error("Ignoring invalid risk rules in {}: {}", file, error);
+    }
+}
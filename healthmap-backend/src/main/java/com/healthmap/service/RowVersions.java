@@ -0,0 +1,47 @@
+package com.healthmap.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells an in-memory view whether a committed change is newer than the row
+ * version it already holds.
+ *
+ * After-commit listeners of different transactions run on their own request
+ * threads, so two serialized writes to the same row can reach a view in
+ * reverse order. Views keep the snapshot they applied per id, whose change
+ * sequence number is its version; this class also remembers the versions of
+ * deleted rows, so a create or update delivered after the row's deletion is
+ * recognised as stale. Those are forgotten once the
+ * {@link ChangeSequence#watermark()} has passed them, since every earlier
+ * change has been delivered by then. Not thread-safe: views call it under
+ * their own lock.
+ */
+final class RowVersions {
+
+    private final Map<Long, Long> deleted = new HashMap<>();
+
+    /**
+     * Whether a change leaving the row at version changeSeq (for a deletion,
+     * the version deleted) should be applied over the version the view holds,
+     * null if it holds none.
+     */
+    boolean isNewer(Long id, Long heldSeq, long changeSeq, boolean deletion) {
+        Long known = heldSeq != null ? heldSeq : deleted.get(id);
+        if (known == null) {
+            return true;
+        }
+        return deletion ? changeSeq >= known : changeSeq > known;
+    }
+
+    void recordDeletion(Long id, long changeSeq, long watermark) {
+        deleted.values().removeIf(seq -> seq <= watermark);
+        if (changeSeq > watermark) {
+            deleted.put(id, changeSeq);
+        }
+    }
+
+    void clear() {
+        deleted.clear();
+    }
+}
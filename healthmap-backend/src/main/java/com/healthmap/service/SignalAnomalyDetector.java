@@ -0,0 +1,509 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.HealthSignalAnomalyResponse;
+import com.healthmap.event.HealthSignalChangedEvent;
+import com.healthmap.event.HealthSignalSnapshot;
+import com.healthmap.model.HealthSignal.SignalType;
+import com.healthmap.repository.HealthSignalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Online detector for unusual rises in daily health signal counts, per
+ * (areaId, signalType), behind /api/health-signals/anomalies.
+ *
+ * Each series keeps O(1) state in a {@link LongObjectMap} keyed by an interned
+ * area index and the type ordinal: the count for the day in progress, an
+ * EWMA mean and variance of completed daily counts, and an upper CUSUM of
+ * their standardised excess. When a signal for a later day arrives the day in
+ * progress (and any empty days in between) is folded into the baseline.
+ * Every signal re-tests the day in progress, so a day is flagged as soon as
+ * its partial count is {@code z-threshold} deviations above the baseline or
+ * pushes the CUSUM past {@code cusum-h}; nothing is recomputed from history.
+ * The deviation is floored at the Poisson value sqrt(mean) so quiet series do
+ * not alarm on a single extra case. Signals dated before a series' day in
+ * progress arrive too late to change its baseline and are only counted.
+ *
+ * State is rebuilt at startup by replaying signals in change sequence order,
+ * the order they were written in, so a back-filled signal that was late when
+ * it arrived is late in the rebuild too and the rebuilt state matches the
+ * live one. With {@code app.anomaly.checkpoint-file} set the state is also
+ * written there periodically and on shutdown, together with the
+ * {@link ChangeSequence#watermark()} it covers, so a restart restores the
+ * checkpoint and replays only signals written after it. Deletions committed
+ * after the last checkpoint are not replayed.
+ */
+@Component
+@Slf4j
+public class SignalAnomalyDetector implements SmartInitializingSingleton, SmartLifecycle {
+
+    private static final int CHECKPOINT_MAGIC = 0x484D4144;
+    private static final int CHECKPOINT_VERSION = 2;
+    private static final int MAX_GAP_DAYS = 366;
+    private static final int MAX_ANOMALIES = 1000;
+    private static final SignalType[] TYPES = SignalType.values();
+
+    private static final class Series {
+        int day;          // epoch day being counted
+        int count;        // signals so far on that day
+        int days;         // completed days folded into the baseline
+        double mean;      // EWMA of completed daily counts
+        double variance;  // EWMA variance of completed daily counts
+        double cusum;     // upper CUSUM over completed days, in standard deviations
+        boolean flagged;  // day in progress is currently an anomaly
+
+        Series(int day) {
+            this.day = day;
+        }
+    }
+
+    private record AnomalyKey(long series, int day) {
+    }
+
+    private record Anomaly(String areaId, SignalType signalType, int day, int count, double expected,
+                           double stdDev, double zScore, double cusum, LocalDateTime detectedAt) {
+    }
+
+    private final HealthSignalRepository healthSignalRepository;
+    private final ChangeSequence changeSequence;
+    private final TransactionTemplate readOnly;
+    private final double alpha;
+    private final double zThreshold;
+    private final double cusumK;
+    private final double cusumH;
+    private final int warmupDays;
+    private final int minCount;
+    private final Path checkpointFile;
+    private final long checkpointIntervalSeconds;
+
+    private final Map<String, Integer> areaIndex = new HashMap<>();
+    private final List<String> areaIds = new ArrayList<>();
+    private final LongObjectMap<Series> series = new LongObjectMap<>();
+    private final Map<AnomalyKey, Anomaly> anomalies = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AnomalyKey, Anomaly> eldest) {
+            return size() > MAX_ANOMALIES;
+        }
+    };
+    private long lateSignals;
+    private boolean replaying;
+    private boolean dirty;
+
+    private volatile boolean running;
+    private ScheduledExecutorService checkpointer;
+
+    public SignalAnomalyDetector(HealthSignalRepository healthSignalRepository,
+                                 ChangeSequence changeSequence,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.anomaly.alpha:0.2}") double alpha,
+                                 @Value("${app.anomaly.z-threshold:3.0}") double zThreshold,
+                                 @Value("${app.anomaly.cusum-k:0.5}") double cusumK,
+                                 @Value("${app.anomaly.cusum-h:4.0}") double cusumH,
+                                 @Value("${app.anomaly.warmup-days:7}") int warmupDays,
+                                 @Value("${app.anomaly.min-count:3}") int minCount,
+                                 @Value("${app.anomaly.checkpoint-file:}") String checkpointFile,
+                                 @Value("${app.anomaly.checkpoint-interval-seconds:60}") long checkpointIntervalSeconds) {
+        this.healthSignalRepository = healthSignalRepository;
+        this.changeSequence = changeSequence;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.alpha = alpha;
+        this.zThreshold = zThreshold;
+        this.cusumK = cusumK;
+        this.cusumH = cusumH;
+        this.warmupDays = warmupDays;
+        this.minCount = minCount;
+        this.checkpointFile = checkpointFile.isBlank() ? null : Paths.get(checkpointFile);
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long started = System.nanoTime();
+        long restoredSeq = checkpointFile != null ? restore() : -1;
+        boolean restored = restoredSeq >= 0;
+        // Rows written before change tracking carry 0
+        long replayed = replay(restored ? restoredSeq : -1);
+        log.info("Signal anomaly detector {}: {} series, {} signals replayed ({} late), {} anomalies, {} ms",
+                restored ? "restored from " + checkpointFile : "rebuilt", series.size(), replayed,
+                lateSignals, anomalies.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public synchronized void onHealthSignalChanged(HealthSignalChangedEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(event.after(), 1);
+        }
+    }
+
+    /**
+     * Anomalies dated within the last {@code days} days, newest first, optionally for one area.
+     */
+    public synchronized List<HealthSignalAnomalyResponse> recentAnomalies(int days, String areaId) {
+        int since = (int) LocalDate.now().minusDays(days - 1L).toEpochDay();
+        return anomalies.values().stream()
+                .filter(a -> a.day() >= since && (areaId == null || a.areaId().equals(areaId)))
+                .sorted(Comparator.comparingInt(Anomaly::day).reversed()
+                        .thenComparing(Comparator.comparingDouble(Anomaly::zScore).reversed()))
+                .map(SignalAnomalyDetector::toResponse)
+                .toList();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (checkpointFile == null) {
+            return;
+        }
+        checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "anomaly-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(this::checkpoint,
+                checkpointIntervalSeconds, checkpointIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (checkpointer != null) {
+            checkpointer.shutdownNow();
+            checkpoint();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Detection
+
+    private void apply(HealthSignalSnapshot signal, int sign) {
+        dirty = true;
+        int area = areaIndex(signal.areaId());
+        long key = (long) area << 8 | signal.signalType().ordinal();
+        int day = (int) signal.signalDate().toEpochDay();
+
+        Series s = series.get(key);
+        if (s == null) {
+            if (sign < 0) {
+                return;
+            }
+            s = new Series(day);
+            series.put(key, s);
+        }
+        if (day > s.day) {
+            advance(key, s, day);
+        } else if (day < s.day) {
+            lateSignals++;
+            return;
+        }
+        s.count = Math.max(0, s.count + sign);
+        evaluate(key, s);
+    }
+
+    /**
+     * Folds the day in progress and any empty days up to {@code day} into the baseline.
+     */
+    private void advance(long key, Series s, int day) {
+        fold(s, s.count);
+        int emptyDays = Math.min(day - s.day - 1, MAX_GAP_DAYS);
+        for (int i = 0; i < emptyDays; i++) {
+            fold(s, 0);
+        }
+        s.day = day;
+        s.count = 0;
+        s.flagged = false;
+    }
+
+    private void fold(Series s, int count) {
+        if (s.days == 0) {
+            s.mean = count;
+            s.variance = 0;
+        } else {
+            s.cusum = Math.max(0, s.cusum + (count - s.mean) / stdDev(s) - cusumK);
+            double diff = count - s.mean;
+            double increment = alpha * diff;
+            s.mean += increment;
+            s.variance = (1 - alpha) * (s.variance + diff * increment);
+        }
+        s.days++;
+    }
+
+    private void evaluate(long key, Series s) {
+        boolean anomalous = false;
+        double sd = 0;
+        double z = 0;
+        double cusum = 0;
+        if (s.days >= warmupDays && s.count >= minCount) {
+            sd = stdDev(s);
+            z = (s.count - s.mean) / sd;
+            cusum = Math.max(0, s.cusum + z - cusumK);
+            anomalous = z >= zThreshold || cusum >= cusumH;
+        }
+        if (!anomalous && !s.flagged) {
+            return;
+        }
+        AnomalyKey anomalyKey = new AnomalyKey(key, s.day);
+        if (!anomalous) {
+            anomalies.remove(anomalyKey);
+            s.flagged = false;
+            return;
+        }
+        Anomaly previous = anomalies.get(anomalyKey);
+        String areaId = areaIds.get((int) (key >>> 8));
+        SignalType type = TYPES[(int) (key & 0xFF)];
+        anomalies.put(anomalyKey, new Anomaly(areaId, type, s.day, s.count, s.mean, sd, z, cusum,
+                previous != null ? previous.detectedAt() : LocalDateTime.now()));
+        if (!s.flagged && !replaying) {
+            log.warn("Anomaly: {} {} signals in {} on {} (expected {}, z={})", s.count, type, areaId,
+                    LocalDate.ofEpochDay(s.day), round(s.mean), round(z));
+        }
+        s.flagged = true;
+    }
+
+    private static double stdDev(Series s) {
+        return Math.max(Math.sqrt(s.variance), Math.sqrt(Math.max(s.mean, 1.0)));
+    }
+
+    private int areaIndex(String areaId) {
+        Integer index = areaIndex.get(areaId);
+        if (index == null) {
+            index = areaIds.size();
+            areaIds.add(areaId);
+            areaIndex.put(areaId, index);
+        }
+        return index;
+    }
+
+    // Replay and checkpoints
+
+    private long replay(long afterSeq) {
+        long[] replayed = new long[1];
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<HealthSignalSnapshot> signals = healthSignalRepository.streamSnapshotsAfterChangeSeq(afterSeq)) {
+                synchronized (this) {
+                    replaying = true;
+                    try {
+                        signals.forEach(signal -> {
+                            apply(signal, 1);
+                            replayed[0]++;
+                        });
+                    } finally {
+                        replaying = false;
+                    }
+                }
+            }
+        });
+        return replayed[0];
+    }
+
+    private void checkpoint() {
+        byte[] bytes;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            try {
+                // Every change at or below the watermark has reached onHealthSignalChanged
+                bytes = encode(changeSequence.watermark());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            dirty = false;
+        }
+        try {
+            Path parent = checkpointFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "anomaly", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write anomaly detector checkpoint {}: {}", checkpointFile, e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private byte[] encode(long watermark) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + series.size() * 48);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        writeParameters(out);
+        out.writeLong(watermark);
+        out.writeLong(lateSignals);
+        out.writeInt(areaIds.size());
+        for (String areaId : areaIds) {
+            out.writeUTF(areaId);
+        }
+        out.writeInt(series.size());
+        IOException[] failure = new IOException[1];
+        series.forEach((key, s) -> {
+            try {
+                out.writeLong(key);
+                out.writeInt(s.day);
+                out.writeInt(s.count);
+                out.writeInt(s.days);
+                out.writeDouble(s.mean);
+                out.writeDouble(s.variance);
+                out.writeDouble(s.cusum);
+                out.writeBoolean(s.flagged);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        out.writeInt(anomalies.size());
+        for (Map.Entry<AnomalyKey, Anomaly> entry : anomalies.entrySet()) {
+            Anomaly a = entry.getValue();
+            out.writeLong(entry.getKey().series());
+            out.writeInt(a.day());
+            out.writeInt(a.count());
+            out.writeDouble(a.expected());
+            out.writeDouble(a.stdDev());
+            out.writeDouble(a.zScore());
+            out.writeDouble(a.cusum());
+            out.writeLong(a.detectedAt().toEpochSecond(ZoneOffset.UTC));
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    private void writeParameters(DataOutputStream out) throws IOException {
+        out.writeDouble(alpha);
+        out.writeDouble(zThreshold);
+        out.writeDouble(cusumK);
+        out.writeDouble(cusumH);
+        out.writeInt(warmupDays);
+        out.writeInt(minCount);
+    }
+
+    /**
+     * Loads the checkpoint if it exists, was written with the same parameters
+     * and does not run ahead of the database (e.g. after a database reset).
+     * Returns the change sequence number it covers, or -1 if nothing was loaded.
+     */
+    private synchronized long restore() {
+        if (!Files.exists(checkpointFile)) {
+            return -1;
+        }
+        try (InputStream file = Files.newInputStream(checkpointFile);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                log.warn("Ignoring anomaly detector checkpoint {}: unknown format", checkpointFile);
+                return -1;
+            }
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            writeParameters(new DataOutputStream(expected));
+            if (!Arrays.equals(in.readNBytes(expected.size()), expected.toByteArray())) {
+                log.info("Detector parameters changed since the last checkpoint; rebuilding");
+                return -1;
+            }
+            long checkpointSeq = in.readLong();
+            if (checkpointSeq > changeSequence.watermark()) {
+                log.info("Anomaly detector checkpoint is ahead of the database; rebuilding");
+                return -1;
+            }
+            long checkpointLate = in.readLong();
+
+            List<String> restoredAreas = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                restoredAreas.add(in.readUTF());
+            }
+            LongObjectMap<Series> restoredSeries = new LongObjectMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                long key = in.readLong();
+                Series s = new Series(in.readInt());
+                s.count = in.readInt();
+                s.days = in.readInt();
+                s.mean = in.readDouble();
+                s.variance = in.readDouble();
+                s.cusum = in.readDouble();
+                s.flagged = in.readBoolean();
+                restoredSeries.put(key, s);
+            }
+            Map<AnomalyKey, Anomaly> restoredAnomalies = new LinkedHashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                long key = in.readLong();
+                int day = in.readInt();
+                restoredAnomalies.put(new AnomalyKey(key, day), new Anomaly(
+                        restoredAreas.get((int) (key >>> 8)), TYPES[(int) (key & 0xFF)], day, in.readInt(),
+                        in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                        LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC)));
+            }
+
+            areaIds.addAll(restoredAreas);
+            for (int i = 0; i < restoredAreas.size(); i++) {
+                areaIndex.put(restoredAreas.get(i), i);
+            }
+            restoredSeries.forEach(series::put);
+            anomalies.putAll(restoredAnomalies);
+            lateSignals = checkpointLate;
+            return checkpointSeq;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable anomaly detector checkpoint {}: {}", checkpointFile, e.getMessage());
+            return -1;
+        }
+    }
+
+    private static HealthSignalAnomalyResponse toResponse(Anomaly a) {
+        return HealthSignalAnomalyResponse.builder()
+                .areaId(a.areaId())
+                .signalType(a.signalType().name())
+                .date(LocalDate.ofEpochDay(a.day()))
+                .count(a.count())
+                .expected(round(a.expected()))
+                .stdDev(round(a.stdDev()))
+                .score(round(a.zScore()))
+                .cusum(round(a.cusum()))
+                .detectedAt(a.detectedAt())
+                .build();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,336 @@
+package com.healthmap.service;
+
+import com.healthmap.dto.UploadSessionRequest;
+import com.healthmap.dto.UploadSessionResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resumable uploads, for clients whose connections rarely survive a whole
+ * file in one request.
+ *
+ * A session opens an empty file in the {@link ContentStore}'s incoming
+ * directory. Chunks are appended in order, each at the offset the session
+ * has reached: the request body is copied
+ * through a small buffer straight into the file's channel, and hashed on the
+ * way, so an interrupted chunk keeps every byte written before the
+ * connection dropped and the client resumes from the offset the session
+ * reports. A complete file is handed to the store without being read again.
+ *
+ * The disk space is not allocated up front, so it is budgeted instead: at most
+ * {@code app.files.upload-sessions.max-sessions} sessions may be open, and
+ * the declared sizes of open sessions may add up to no more than
+ * {@code app.files.upload-sessions.max-total-bytes}, nor to more than the
+ * incoming directory's volume has free. A session over either limit is
+ * refused with 429 or 507 rather than failing part-way through its chunks.
+ *
+ * Sessions live in memory and expire {@code app.files.upload-sessions.expiry-seconds}
+ * after their last chunk; a sweeper deletes expired sessions' files, along
+ * with anything else left in the incoming directory that long (such as the
+ * files of sessions lost in a restart).
+ */
+@Service
+@Slf4j
+public class UploadSessionService implements SmartLifecycle {
+
+    public record CompletedUpload(ContentStore.StoredFile file, String originalName) {
+    }
+
+    private static final String SESSION_SUFFIX = ".upload";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_SWEEP_INTERVAL_SECONDS = 300;
+
+    private final ContentStore contentStore;
+    private final long maxBytes;
+    private final long expirySeconds;
+    private final int maxSessions;
+    private final long maxTotalBytes;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Declared sizes of the sessions in the map; guarded by this
+    private long reservedBytes;
+
+    private volatile boolean running;
+    private ScheduledExecutorService sweeper;
+
+    public UploadSessionService(ContentStore contentStore,
+                                @Value("${app.files.upload-sessions.max-bytes:104857600}") long maxBytes,
+                                @Value("${app.files.upload-sessions.expiry-seconds:86400}") long expirySeconds,
+                                @Value("${app.files.upload-sessions.max-sessions:100}") int maxSessions,
+                                @Value("${app.files.upload-sessions.max-total-bytes:1073741824}") long maxTotalBytes) {
+        this.contentStore = contentStore;
+        this.maxBytes = maxBytes;
+        this.expirySeconds = Math.max(1, expirySeconds);
+        this.maxSessions = Math.max(1, maxSessions);
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    public UploadSessionResponse create(UploadSessionRequest request) throws IOException {
+        if (!request.getContentType().startsWith("image/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image files are allowed");
+        }
+        if (request.getSize() > maxBytes) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Uploads are limited to " + maxBytes + " bytes");
+        }
+        String id = UUID.randomUUID().toString();
+        Path file = contentStore.incomingDirectory().resolve(id + SESSION_SUFFIX);
+        Session session = new Session(id, request.getFilename(), request.getContentType(), request.getSize(), file);
+        session.touch(expirySeconds);
+        Files.createFile(file);
+        try {
+            open(session);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return session.toResponse();
+    }
+
+    public UploadSessionResponse get(String id) {
+        return find(id).toResponse();
+    }
+
+    /**
+     * Writes the request body at {@code offset}, which must be where the
+     * session has got to. Bytes that arrive before the client disconnects
+     * are kept.
+     */
+    public UploadSessionResponse write(String id, long offset, InputStream body) throws IOException {
+        Session session = acquire(id);
+        session.touch(expirySeconds);
+        try {
+            if (offset != session.offset) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Upload " + id + " continues at offset " + session.offset + ", not " + offset);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            try (ReadableByteChannel source = Channels.newChannel(body);
+                 FileChannel target = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    int length = buffer.remaining();
+                    if (session.offset + length > session.size) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "Chunk runs past the declared size of " + session.size + " bytes");
+                    }
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer, session.offset + length - buffer.remaining());
+                    }
+                    session.digest.update(buffer.array(), 0, length);
+                    session.offset += length;
+                    buffer.clear();
+                }
+            }
+            return session.toResponse();
+        } finally {
+            session.touch(expirySeconds);
+            session.busy.set(false);
+        }
+    }
+
+    /**
+     * Stores a session's file once every byte has arrived, and ends the
+     * session. A given {@code sha256} must match the content received.
+     */
+    public CompletedUpload complete(String id, String sha256) throws IOException {
+        Session session = acquire(id);
+        try {
+            if (session.offset != session.size) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Upload " + id + " has " + session.offset + " of " + session.size + " bytes");
+            }
+            String hash = HexFormat.of().formatHex(session.digest.digest());
+            end(session);
+            if (sha256 != null && !sha256.equalsIgnoreCase(hash)) {
+                Files.deleteIfExists(session.file);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Upload " + id + " does not match sha256 " + sha256 + "; it has been discarded");
+            }
+            ContentStore.StoredFile stored = contentStore.store(session.file,
+                    hash, ContentStore.extensionOf(session.filename));
+            return new CompletedUpload(stored, session.filename);
+        } finally {
+            session.busy.set(false);
+        }
+    }
+
+    public void cancel(String id) throws IOException {
+        Session session = acquire(id);
+        end(session);
+        Files.deleteIfExists(session.file);
+    }
+
+    @Override
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "upload-session-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, Math.min(MAX_SWEEP_INTERVAL_SECONDS, expirySeconds / 4));
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.SECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (Session session : sessions.values()) {
+            // Claimed for good: a client still holding the id gets a 404
+            if (session.expiresAt.isBefore(now) && session.busy.compareAndSet(false, true)) {
+                end(session);
+                delete(session.file);
+                expired++;
+            }
+        }
+        long cutoff = System.currentTimeMillis() - expirySeconds * 1000;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(contentStore.incomingDirectory())) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean live = name.endsWith(SESSION_SUFFIX)
+                        && sessions.containsKey(name.substring(0, name.length() - SESSION_SUFFIX.length()));
+                if (!live && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    delete(file);
+                    expired++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep abandoned uploads: {}", e.getMessage());
+        }
+        if (expired > 0) {
+            log.info("Removed {} abandoned uploads", expired);
+        }
+    }
+
+    private synchronized void open(Session session) throws IOException {
+        if (sessions.size() >= maxSessions) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many uploads in progress; try again later");
+        }
+        long free = Files.getFileStore(contentStore.incomingDirectory()).getUsableSpace();
+        long reserved = reservedBytes + session.size;
+        // Files of open sessions already hold their offset's worth of the volume
+        long written = sessions.values().stream().mapToLong(s -> s.offset).sum();
+        if (reserved > maxTotalBytes || reserved - written > free) {
+            throw new ResponseStatusException(HttpStatus.INSUFFICIENT_STORAGE,
+                    "Not enough space for another " + session.size + " byte upload; try again later");
+        }
+        reservedBytes = reserved;
+        sessions.put(session.id, session);
+    }
+
+    /** Removes a session from the map, once, releasing its share of the budget. */
+    private synchronized void end(Session session) {
+        if (sessions.remove(session.id, session)) {
+            reservedBytes -= session.size;
+        }
+    }
+
+    private Session find(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found: " + id);
+        }
+        return session;
+    }
+
+    private Session acquire(String id) {
+        Session session = find(id);
+        if (!session.busy.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload " + id + " is busy with another request");
+        }
+        if (sessions.get(id) != session) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found: " + id);
+        }
+        return session;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Session {
+        final String id;
+        final String filename;
+        final String contentType;
+        final long size;
+        final Path file;
+        final MessageDigest digest;
+        final AtomicBoolean busy = new AtomicBoolean();
+        // Written only while busy is held
+        volatile long offset;
+        volatile LocalDateTime expiresAt;
+
+        Session(String id, String filename, String contentType, long size, Path file) {
+            this.id = id;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.size = size;
+            this.file = file;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void touch(long expirySeconds) {
+            expiresAt = LocalDateTime.now().plusSeconds(expirySeconds);
+        }
+
+        UploadSessionResponse toResponse() {
+            return UploadSessionResponse.builder()
+                    .id(id)
+                    .filename(filename)
+                    .contentType(contentType)
+                    .size(size)
+                    .offset(offset)
+                    .expiresAt(expiresAt)
+                    .build();
+        }
+    }
+}
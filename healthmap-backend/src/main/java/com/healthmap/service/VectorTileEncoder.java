@@ -0,0 +1,176 @@
+package com.healthmap.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile (spec 2.1) encoder for point layers.
+ *
+ * Only what the tile endpoint needs is implemented: POINT features with an
+ * id, tile-local integer coordinates and string, integer or boolean
+ * attributes. Keys and values are de-duplicated per layer as the spec asks.
+ */
+public class VectorTileEncoder {
+
+    public static final int EXTENT = 4096;
+
+    // Protobuf wire types
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 2;
+
+    // vector_tile.proto field numbers
+    private static final int TILE_LAYERS = 3;
+    private static final int LAYER_VERSION = 15;
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_INT = 4;
+    private static final int VALUE_BOOL = 7;
+
+    private static final int GEOM_POINT = 1;
+    private static final int CMD_MOVE_TO_ONCE = (1 << 3) | 1;
+
+    private final List<Layer> layers = new ArrayList<>();
+
+    public Layer addLayer(String name) {
+        Layer layer = new Layer(name);
+        layers.add(layer);
+        return layer;
+    }
+
+    public byte[] encode() {
+        Buffer tile = new Buffer();
+        for (Layer layer : layers) {
+            if (!layer.features.isEmpty()) {
+                tile.writeBytesField(TILE_LAYERS, layer.encode());
+            }
+        }
+        return tile.toByteArray();
+    }
+
+    public static final class Layer {
+
+        private final String name;
+        private final List<byte[]> features = new ArrayList<>();
+        private final Map<String, Integer> keys = new HashMap<>();
+        private final List<String> keyList = new ArrayList<>();
+        private final Map<Object, Integer> values = new HashMap<>();
+        private final List<Object> valueList = new ArrayList<>();
+
+        private Layer(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Adds a point at tile-local coordinates (0..EXTENT). Attribute values
+         * may be String, Integer, Long or Boolean; nulls are skipped.
+         */
+        public void addPoint(long id, int x, int y, Map<String, Object> attributes) {
+            Buffer tags = new Buffer();
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                if (attribute.getValue() == null) {
+                    continue;
+                }
+                tags.writeVarint(keyIndex(attribute.getKey()));
+                tags.writeVarint(valueIndex(attribute.getValue()));
+            }
+
+            Buffer geometry = new Buffer();
+            geometry.writeVarint(CMD_MOVE_TO_ONCE);
+            geometry.writeVarint(zigZag(x));
+            geometry.writeVarint(zigZag(y));
+
+            Buffer feature = new Buffer();
+            feature.writeTag(FEATURE_ID, VARINT);
+            feature.writeVarint(id);
+            feature.writeBytesField(FEATURE_TAGS, tags.toByteArray());
+            feature.writeTag(FEATURE_TYPE, VARINT);
+            feature.writeVarint(GEOM_POINT);
+            feature.writeBytesField(FEATURE_GEOMETRY, geometry.toByteArray());
+            features.add(feature.toByteArray());
+        }
+
+        private int keyIndex(String key) {
+            return keys.computeIfAbsent(key, k -> {
+                keyList.add(k);
+                return keyList.size() - 1;
+            });
+        }
+
+        private int valueIndex(Object value) {
+            return values.computeIfAbsent(value, v -> {
+                valueList.add(v);
+                return valueList.size() - 1;
+            });
+        }
+
+        private byte[] encode() {
+            Buffer layer = new Buffer();
+            layer.writeTag(LAYER_VERSION, VARINT);
+            layer.writeVarint(2);
+            layer.writeBytesField(LAYER_NAME, name.getBytes(StandardCharsets.UTF_8));
+            for (byte[] feature : features) {
+                layer.writeBytesField(LAYER_FEATURES, feature);
+            }
+            for (String key : keyList) {
+                layer.writeBytesField(LAYER_KEYS, key.getBytes(StandardCharsets.UTF_8));
+            }
+            for (Object value : valueList) {
+                layer.writeBytesField(LAYER_VALUES, encodeValue(value));
+            }
+            layer.writeTag(LAYER_EXTENT, VARINT);
+            layer.writeVarint(EXTENT);
+            return layer.toByteArray();
+        }
+
+        private static byte[] encodeValue(Object value) {
+            Buffer buffer = new Buffer();
+            if (value instanceof Boolean b) {
+                buffer.writeTag(VALUE_BOOL, VARINT);
+                buffer.writeVarint(b ? 1 : 0);
+            } else if (value instanceof Number n) {
+                buffer.writeTag(VALUE_INT, VARINT);
+                buffer.writeVarint(n.longValue());
+            } else {
+                buffer.writeBytesField(VALUE_STRING, value.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return buffer.toByteArray();
+        }
+    }
+
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        void writeTag(int field, int wireType) {
+            writeVarint(((long) field << 3) | wireType);
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeBytesField(int field, byte[] bytes) {
+            writeTag(field, LENGTH_DELIMITED);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
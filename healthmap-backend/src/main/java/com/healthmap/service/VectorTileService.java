@@ -0,0 +1,215 @@
+package com.healthmap.service;
+
+import com.healthmap.event.AssessmentChangedEvent;
+import com.healthmap.event.AssessmentSnapshot;
+import com.healthmap.event.HealthSignalChangedEvent;
+import com.healthmap.event.HealthSignalSnapshot;
+import com.healthmap.repository.HealthSignalRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds Mapbox Vector Tiles with an "assessments" and a "health_signals"
+ * point layer, and keeps recently served tiles in a bounded LRU cache.
+ *
+ * A committed assessment or signal change evicts, at every zoom level, only
+ * the tiles that contain the changed point's old or new position. Assessment
+ * evictions run after {@link AssessmentClusterIndex} has applied the change,
+ * so a tile built in between is either current or never cached.
+ *
+ * Health signals are limited to the last {@code app.tiles.signal-days} days
+ * (the window the map shows) and to the newest
+ * {@code app.tiles.max-signals-per-tile} of those, so low-zoom tiles covering
+ * many areas stay bounded. The cache is dropped when the date changes, as
+ * the window moves. Assessments are likewise capped at
+ * {@code app.tiles.max-assessments-per-tile} per tile, keeping the highest
+ * overall risk.
+ */
+@Service
+public class VectorTileService {
+
+    public static final int MAX_ZOOM = 22;
+
+    private final AssessmentClusterIndex clusterIndex;
+    private final HealthSignalRepository healthSignalRepository;
+    private final int signalDays;
+    private final Limit maxSignalsPerTile;
+    private final int maxAssessmentsPerTile;
+    private final Map<Long, byte[]> cache;
+    private LocalDate cacheDate = LocalDate.now();
+
+    // Bumped on every eviction so a tile built concurrently with a change is not cached stale
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VectorTileService(AssessmentClusterIndex clusterIndex,
+                             HealthSignalRepository healthSignalRepository,
+                             @Value("${app.tiles.cache-size:4096}") int cacheSize,
+                             @Value("${app.tiles.signal-days:30}") int signalDays,
+                             @Value("${app.tiles.max-signals-per-tile:5000}") int maxSignalsPerTile,
+                             @Value("${app.tiles.max-assessments-per-tile:5000}") int maxAssessmentsPerTile) {
+        this.clusterIndex = clusterIndex;
+        this.healthSignalRepository = healthSignalRepository;
+        this.signalDays = signalDays;
+        this.maxSignalsPerTile = Limit.of(maxSignalsPerTile);
+        this.maxAssessmentsPerTile = Math.max(1, maxAssessmentsPerTile);
+        this.cache = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static boolean isValidTile(int z, int x, int y) {
+        if (z < 0 || z > MAX_ZOOM) {
+            return false;
+        }
+        int n = 1 << z;
+        return x >= 0 && x < n && y >= 0 && y < n;
+    }
+
+    public byte[] getTile(int z, int x, int y) {
+        long key = tileKey(z, x, y);
+        LocalDate today = LocalDate.now();
+        synchronized (cache) {
+            if (!today.equals(cacheDate)) {
+                cache.clear();
+                cacheDate = today;
+            }
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long evictionsBefore = evictions.get();
+        byte[] tile = buildTile(z, x, y, today.minusDays(signalDays - 1));
+        synchronized (cache) {
+            if (evictions.get() == evictionsBefore && today.equals(cacheDate)) {
+                cache.put(key, tile);
+            }
+        }
+        return tile;
+    }
+
+    // Default order: after AssessmentClusterIndex
+    @TransactionalEventListener
+    public void onAssessmentChanged(AssessmentChangedEvent event) {
+        if (event.before() != null) {
+            evictTilesContaining(event.before().latitude(), event.before().longitude());
+        }
+        if (event.after() != null) {
+            evictTilesContaining(event.after().latitude(), event.after().longitude());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onHealthSignalChanged(HealthSignalChangedEvent event) {
+        if (event.before() != null) {
+            evictTilesContaining(event.before().latitude(), event.before().longitude());
+        }
+        if (event.after() != null) {
+            evictTilesContaining(event.after().latitude(), event.after().longitude());
+        }
+    }
+
+    private void evictTilesContaining(double latitude, double longitude) {
+        double worldX = worldX(longitude);
+        double worldY = worldY(latitude);
+        synchronized (cache) {
+            evictions.incrementAndGet();
+            for (int z = 0; z <= MAX_ZOOM; z++) {
+                int n = 1 << z;
+                int x = Math.min(n - 1, (int) Math.floor(worldX * n));
+                int y = Math.min(n - 1, (int) Math.floor(worldY * n));
+                cache.remove(tileKey(z, x, y));
+            }
+        }
+    }
+
+    private byte[] buildTile(int z, int x, int y, LocalDate signalsSince) {
+        int n = 1 << z;
+        BoundingBox box = new BoundingBox(
+                tileLongitude(x, n), tileLatitude(y + 1, n),
+                tileLongitude(x + 1, n), tileLatitude(y, n));
+
+        VectorTileEncoder encoder = new VectorTileEncoder();
+
+        VectorTileEncoder.Layer assessments = encoder.addLayer("assessments");
+        List<AssessmentSnapshot> points = clusterIndex.points(box);
+        if (points.size() > maxAssessmentsPerTile) {
+            points.sort(Comparator.comparingInt(AssessmentSnapshot::overallRisk).reversed()
+                    .thenComparing(AssessmentSnapshot::id));
+            points = points.subList(0, maxAssessmentsPerTile);
+        }
+        for (AssessmentSnapshot a : points) {
+            int px = localX(a.longitude(), n, x);
+            int py = localY(a.latitude(), n, y);
+            if (inTile(px, py)) {
+                Map<String, Object> attributes = new LinkedHashMap<>();
+                attributes.put("priority", a.priority().name());
+                attributes.put("overallRisk", a.overallRisk());
+                attributes.put("siteType", a.siteType().name());
+                assessments.addPoint(a.id(), px, py, attributes);
+            }
+        }
+
+        VectorTileEncoder.Layer signals = encoder.addLayer("health_signals");
+        for (HealthSignalSnapshot s : healthSignalRepository.findSnapshotsWithinBoundsSince(
+                box.minLat(), box.minLon(), box.maxLat(), box.maxLon(), signalsSince, maxSignalsPerTile)) {
+            int px = localX(s.longitude(), n, x);
+            int py = localY(s.latitude(), n, y);
+            if (inTile(px, py)) {
+                Map<String, Object> attributes = new LinkedHashMap<>();
+                attributes.put("signalType", s.signalType().name());
+                attributes.put("signalLevel", s.signalLevel().name());
+                attributes.put("signalDate", s.signalDate().toString());
+                signals.addPoint(s.id(), px, py, attributes);
+            }
+        }
+
+        return encoder.encode();
+    }
+
+    private static boolean inTile(int px, int py) {
+        return px >= 0 && px < VectorTileEncoder.EXTENT && py >= 0 && py < VectorTileEncoder.EXTENT;
+    }
+
+    private static int localX(double longitude, int n, int tileX) {
+        return (int) Math.floor((worldX(longitude) * n - tileX) * VectorTileEncoder.EXTENT);
+    }
+
+    private static int localY(double latitude, int n, int tileY) {
+        return (int) Math.floor((worldY(latitude) * n - tileY) * VectorTileEncoder.EXTENT);
+    }
+
+    private static double worldX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    private static double worldY(double latitude) {
+        double lat = Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, latitude)));
+        return (1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0;
+    }
+
+    private static double tileLongitude(int x, int n) {
+        return (double) x / n * 360.0 - 180.0;
+    }
+
+    private static double tileLatitude(int y, int n) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1.0 - 2.0 * y / n))));
+    }
+
+    private static long tileKey(int z, int x, int y) {
+        return ((long) z << 58) | ((long) x << 29) | y;
+    }
+}
@@ -5,6 +5,9 @@
 -- Clear existing data
 DELETE FROM assessments;
 
+-- Assessment ids come from a pooled sequence; let the seed rows draw from it too
+ALTER TABLE assessments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR assessments_seq;
+
 -- Gaza Strip - Critical Risk Sites
 INSERT INTO assessments (latitude, longitude, image_path, site_type, building_age, dust_present, old_materials, near_population, sewage_visible, standing_water, material_type, asbestos_risk, water_risk, overall_risk, priority, notes, created_by, created_at, updated_at)
 VALUES
@@ -80,6 +83,7 @@ VALUES
 -- Health Signals Data
 -- Clear existing health signals
 DELETE FROM health_signals;
+ALTER TABLE health_signals ALTER COLUMN id SET DEFAULT NEXT VALUE FOR health_signals_seq;
 
 -- Gaza Central - Al-Shifa Area (Critical respiratory signals)
 INSERT INTO health_signals (area_id, area_name, signal_date, signal_type, signal_level, source, notes, latitude, longitude, reported_by, created_at, updated_at)
@@ -0,0 +1,46 @@
+-- Baseline schema, matching what Hibernate generates for the entities.
+-- Sequences back the pooled id generators (allocation size 50).
+
+CREATE SEQUENCE assessments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE health_signals_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE assessments (
+    id              BIGINT        NOT NULL,
+    latitude        FLOAT(53)     NOT NULL,
+    longitude       FLOAT(53)     NOT NULL,
+    image_path      VARCHAR(255),
+    site_type       VARCHAR(255)  NOT NULL CHECK (site_type IN ('DEBRIS', 'WATER', 'BOTH')),
+    building_age    VARCHAR(255)  CHECK (building_age IN ('OLD', 'MODERN', 'UNKNOWN')),
+    dust_present    BOOLEAN       NOT NULL,
+    old_materials   BOOLEAN       NOT NULL,
+    near_population BOOLEAN       NOT NULL,
+    sewage_visible  BOOLEAN       NOT NULL,
+    standing_water  BOOLEAN       NOT NULL,
+    material_type   VARCHAR(255),
+    asbestos_risk   INTEGER       NOT NULL,
+    water_risk      INTEGER       NOT NULL,
+    overall_risk    INTEGER       NOT NULL,
+    priority        VARCHAR(255)  NOT NULL CHECK (priority IN ('CRITICAL', 'HIGH', 'MEDIUM', 'LOW')),
+    notes           VARCHAR(1000),
+    created_by      VARCHAR(255),
+    created_at      TIMESTAMP(6)  NOT NULL,
+    updated_at      TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE health_signals (
+    id           BIGINT        NOT NULL,
+    area_id      VARCHAR(255)  NOT NULL,
+    area_name    VARCHAR(255)  NOT NULL,
+    signal_date  DATE          NOT NULL,
+    signal_type  VARCHAR(255)  NOT NULL CHECK (signal_type IN ('RESPIRATORY', 'GASTROINTESTINAL', 'SKIN')),
+    signal_level VARCHAR(255)  NOT NULL CHECK (signal_level IN ('NORMAL', 'ELEVATED')),
+    source       VARCHAR(255)  NOT NULL CHECK (source IN ('CLINIC', 'FIELD_TEAM', 'MOBILE_UNIT', 'ORGANIZATION')),
+    notes        VARCHAR(1000),
+    latitude     FLOAT(53)     NOT NULL,
+    longitude    FLOAT(53)     NOT NULL,
+    reported_by  VARCHAR(255),
+    created_at   TIMESTAMP(6)  NOT NULL,
+    updated_at   TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
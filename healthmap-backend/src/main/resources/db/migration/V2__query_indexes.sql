@@ -0,0 +1,11 @@
+-- Indexes for the repository query shapes. Keyset-paginated sorts carry id
+-- as the tie-breaker so a page is a single index range scan.
+
+CREATE INDEX idx_assessments_priority ON assessments (priority);
+CREATE INDEX idx_assessments_overall_risk ON assessments (overall_risk DESC, id DESC);
+CREATE INDEX idx_assessments_created_at ON assessments (created_at DESC, id DESC);
+
+CREATE INDEX idx_health_signals_signal_date ON health_signals (signal_date DESC, id DESC);
+CREATE INDEX idx_health_signals_area_date ON health_signals (area_id, signal_date);
+CREATE INDEX idx_health_signals_level_type ON health_signals (signal_level, signal_type);
+CREATE INDEX idx_health_signals_created_at ON health_signals (created_at DESC, id DESC);
@@ -0,0 +1,21 @@
+-- Change tracking for delta sync: every insert and update stamps the row
+-- with the next change sequence number, and deletes leave a tombstone.
+-- Rows written before this migration carry 0.
+
+ALTER TABLE assessments ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE health_signals ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+
+CREATE SEQUENCE tombstones_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tombstones (
+    id           BIGINT        NOT NULL,
+    entity_type  VARCHAR(255)  NOT NULL CHECK (entity_type IN ('ASSESSMENT', 'HEALTH_SIGNAL')),
+    entity_id    BIGINT        NOT NULL,
+    change_seq   BIGINT        NOT NULL,
+    deleted_at   TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_assessments_change_seq ON assessments (change_seq, id);
+CREATE INDEX idx_health_signals_change_seq ON health_signals (change_seq, id);
+CREATE INDEX idx_tombstones_type_change_seq ON tombstones (entity_type, change_seq, entity_id);
@@ -117,7 +117,7 @@ function SiteDetailPage() {
             <div className="bg-white rounded-lg shadow-md p-4">
               <h2 className="text-lg font-semibold text-gray-800 mb-4">Site Photo</h2>
               <img
-                src={fileApi.getUrl(assessment.imagePath)}
+                src={fileApi.getUrl(assessment.imagePath, 'medium')}
                 alt="Site"
                 className="w-full h-64 object-cover rounded-lg"
                 onError={(e) => {
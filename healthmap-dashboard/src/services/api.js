@@ -9,16 +9,37 @@ const api = axios.create({
   },
 });
 
+// List endpoints are cursor-paginated ({ items, nextCursor, hasMore }).
+// Follow the cursor to the end and resolve like a plain list response.
+const getAllPages = async (url, params = {}) => {
+  const items = [];
+  let cursor;
+  do {
+    const { data } = await api.get(url, { params: { ...params, cursor, limit: 500 } });
+    items.push(...data.items);
+    cursor = data.hasMore ? data.nextCursor : undefined;
+  } while (cursor);
+  return { data: items };
+};
+
 // Assessment endpoints
 export const assessmentApi = {
-  getAll: () => api.get('/api/assessments'),
+  getAll: () => getAllPages('/api/assessments'),
+  getPage: (cursor, limit) => api.get('/api/assessments', { params: { cursor, limit } }),
   getById: (id) => api.get(`/api/assessments/${id}`),
   create: (data) => api.post('/api/assessments', data),
+  createBatch: (items) => api.post('/api/assessments/batch', items),
   update: (id, data) => api.put(`/api/assessments/${id}`, data),
   delete: (id) => api.delete(`/api/assessments/${id}`),
-  getPriorities: () => api.get('/api/assessments/priorities'),
+  getPriorities: () => getAllPages('/api/assessments/priorities'),
   getRecent: () => api.get('/api/assessments/recent'),
   getGeoJson: () => api.get('/api/assessments/geojson'),
+  getNear: (lat, lon, radiusKm) => api.get('/api/assessments/near', { params: { lat, lon, radiusKm } }),
+  getNearest: (lat, lon, k = 10) => api.get('/api/assessments/nearest', { params: { lat, lon, k } }),
+  getChanges: (since, limit) => api.get('/api/assessments/changes', { params: { since, limit } }),
+  // bbox = [minLon, minLat, maxLon, maxLat]
+  getViewport: (bbox, zoom) =>
+    api.get('/api/assessments/geojson', { params: { bbox: bbox.join(','), zoom } }),
 };
 
 // Stats endpoints
@@ -27,6 +48,17 @@ export const statsApi = {
   getRiskDistribution: () => api.get('/api/stats/risk-distribution'),
 };
 
+// Bulk export download URLs, e.g. exportUrl('assessments', { format: 'csv', priority: 'CRITICAL' })
+export const exportUrl = (kind, params = {}) =>
+  `${API_BASE_URL}/api/export/${kind}?${new URLSearchParams(params)}`;
+
+// Live change events (Server-Sent Events); EventSource resumes from Last-Event-ID on reconnect.
+// Listen for 'assessment', 'health-signal', 'stats' (deltas) and 'reset' (reload everything).
+export const openEventStream = () => new EventSource(`${API_BASE_URL}/api/events`);
+
+// Vector tiles (for a Leaflet/MapLibre vector layer)
+export const tileUrlTemplate = `${API_BASE_URL}/api/tiles/{z}/{x}/{y}.mvt`;
+
 // File endpoints
 export const fileApi = {
   upload: (file) => {
@@ -36,18 +68,52 @@ export const fileApi = {
       headers: { 'Content-Type': 'multipart/form-data' },
     });
   },
-  getUrl: (filename) => `${API_BASE_URL}/api/files/${filename}`,
+  // variant: 'thumb' or 'medium' for a resized copy (the original until it is ready)
+  getUrl: (filename, variant) =>
+    `${API_BASE_URL}/api/files/${filename}${variant ? `?variant=${variant}` : ''}`,
+  delete: (filename) => api.delete(`/api/files/${filename}`),
+  // Resumable upload: sends chunkSize pieces and, after a failed chunk, resumes
+  // from the offset the server has received
+  uploadResumable: async (file, chunkSize = 256 * 1024, retries = 5) => {
+    const { data: session } = await api.post('/api/files/upload-sessions', {
+      filename: file.name,
+      contentType: file.type,
+      size: file.size,
+    });
+    const url = `/api/files/upload-sessions/${session.id}`;
+    let offset = 0;
+    let failures = 0;
+    while (offset < file.size) {
+      try {
+        const { data } = await api.put(url, file.slice(offset, offset + chunkSize), {
+          headers: { 'Content-Type': 'application/octet-stream', 'Upload-Offset': offset },
+        });
+        offset = data.offset;
+        failures = 0;
+      } catch (err) {
+        if (++failures > retries) throw err;
+        offset = (await api.get(url)).data.offset;
+      }
+    }
+    return api.post(`${url}/complete`);
+  },
 };
 
 // Health Signal endpoints
 export const healthSignalApi = {
-  getAll: () => api.get('/api/health-signals'),
+  getAll: () => getAllPages('/api/health-signals'),
+  getPage: (cursor, limit) => api.get('/api/health-signals', { params: { cursor, limit } }),
   getById: (id) => api.get(`/api/health-signals/${id}`),
   create: (data) => api.post('/api/health-signals', data),
   delete: (id) => api.delete(`/api/health-signals/${id}`),
-  getRecent: (days = 7) => api.get(`/api/health-signals/recent?days=${days}`),
+  getRecent: (days = 7) => getAllPages('/api/health-signals/recent', { days }),
   getByArea: (areaId) => api.get(`/api/health-signals/area/${areaId}`),
   getStats: () => api.get('/api/health-signals/stats'),
+  // bucket: 'day' | 'week'; omit areaId for all areas
+  getTimeSeries: ({ areaId, from, to, bucket = 'day' } = {}) =>
+    api.get('/api/health-signals/timeseries', { params: { areaId, from, to, bucket } }),
+  getAnomalies: (days = 7, areaId) => api.get('/api/health-signals/anomalies', { params: { days, areaId } }),
+  getChanges: (since, limit) => api.get('/api/health-signals/changes', { params: { since, limit } }),
 };
 
 export default api;